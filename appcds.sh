@@ -0,0 +1,45 @@
+#!/bin/sh
+# Builds an AppCDS archive for BatchMain, so later runs map the project's, baseclasses', json's and
+# sqlite-jdbc's classes from the archive instead of loading and verifying them on every start.
+#
+# Usage: SQLITE_JAR=<path to sqlite-jdbc jar> ./appcds.sh <training manifest>
+#
+# Run it from the project root. src/ is compiled afresh into a temporary directory and packaged as
+# build/aircraft-planner.jar, so the archive always matches the current source.
+# The training manifest should be a small but typical run, e.g. one line using the mini_ data, so every class
+# a real run needs is loaded. The archive only matches the exact classpath it was built with, so rebuild it
+# after changing the source or any jar, and run with the same CP:
+#
+#   java -XX:SharedArchiveFile=build/aircraft-planner.jsa -cp "$CP" solution.BatchMain <manifest> <output dir>
+#
+# sqlite-jdbc is not shipped in lib/, so SQLITE_JAR must name it. Needs JDK 13 or later.
+set -e
+
+if [ $# -ne 1 ]; then
+	echo "Usage: SQLITE_JAR=<path to sqlite-jdbc jar> $0 <training manifest>" >&2
+	exit 2
+fi
+if [ -z "$SQLITE_JAR" ] || [ ! -f "$SQLITE_JAR" ]; then
+	echo "Set SQLITE_JAR to the sqlite-jdbc jar, e.g. SQLITE_JAR=~/lib/sqlite-jdbc-3.36.0.3.jar $0 $1" >&2
+	exit 2
+fi
+
+CLASSES=$(mktemp -d)
+trap 'rm -rf "$CLASSES"' EXIT
+
+# CDS only archives classes loaded from jars, so the freshly compiled classes are packaged first
+mkdir -p build
+javac -d "$CLASSES" -cp lib/baseclasses.jar:lib/json-20180813.jar:"$SQLITE_JAR" src/solution/*.java
+jar cf build/aircraft-planner.jar -C "$CLASSES" solution
+CP=build/aircraft-planner.jar:lib/baseclasses.jar:lib/json-20180813.jar:$SQLITE_JAR
+
+# A scenario failing makes BatchMain exit 1, but the classes it loaded are still archived when the JVM exits
+rm -f build/aircraft-planner.jsa
+java -XX:ArchiveClassesAtExit=build/aircraft-planner.jsa -cp "$CP" solution.BatchMain "$1" build/cds-training || true
+if [ ! -f build/aircraft-planner.jsa ]; then
+	echo "No archive was written; see the output of the training run above" >&2
+	exit 1
+fi
+
+echo "Archive written to build/aircraft-planner.jsa. Run with:"
+echo "  java -XX:SharedArchiveFile=build/aircraft-planner.jsa -cp \"$CP\" solution.BatchMain <manifest> <output dir>"
@@ -0,0 +1,28 @@
+package solution;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks in bench/ with the GC profiler attached, so allocation rates are reported alongside times.
+ * Compile bench/ together with src/, with lib/, sqlite-jdbc, jmh-core and jmh-generator-annprocess on the classpath,
+ * and run this class from the project root so ./data resolves
+ */
+public class BenchmarkRunner {
+
+	/**
+	 * Runs the selected benchmarks
+	 * @param args an optional regular expression selecting benchmarks, e.g. "Finder"
+	 * @throws RunnerException if JMH fails to run
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(args.length > 0 ? args[0] : "solution\\..*Benchmark")
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,23 @@
+package solution;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The data sets the benchmarks can be run against, named as in the @Param values
+ */
+public class DataSet {
+
+	/**
+	 * Returns the path of one of a data set's files
+	 * @param dataSet "mini", "schedule" or "full"
+	 * @param file "aircraft.csv", "crew.json", "routes.xml" or "passengers.db"
+	 * @return the path to the file under ./data
+	 */
+	public static Path file(String dataSet, String file) {
+		if(dataSet.equals("full")) {
+			return Paths.get("./data/" + (file.equals("passengers.db") ? "passengernumbers.db" : file));
+		}
+		return Paths.get("./data/" + dataSet + "_" + file);
+	}
+
+}
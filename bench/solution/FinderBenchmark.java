@@ -0,0 +1,153 @@
+package solution;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import baseclasses.Aircraft;
+import baseclasses.CabinCrew;
+import baseclasses.DataLoadingException;
+import baseclasses.Pilot;
+import baseclasses.Route;
+
+/**
+ * Measures every finder on the aircraft, crew and route DAOs, and passenger number lookups.
+ * Search keys are taken from the first records loaded so every data set returns some results
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FinderBenchmark {
+
+	@Param({"mini", "schedule", "full"})
+	public String dataSet;
+
+	AircraftDAO aircraft = new AircraftDAO();
+	CrewDAO crew = new CrewDAO();
+	RouteDAO routes = new RouteDAO();
+	PassengerNumbersDAO passengers = new PassengerNumbersDAO();
+
+	String tailCode;
+	String typeCode;
+	String airportCode;
+	String dayOfWeek;
+	int seats;
+	int flightNumber;
+	LocalDate date = LocalDate.parse("2021-07-01");
+
+	@Setup(Level.Trial)
+	public void load() throws DataLoadingException {
+		aircraft.loadAircraftData(DataSet.file(dataSet, "aircraft.csv"));
+		crew.loadCrewData(DataSet.file(dataSet, "crew.json"));
+		routes.loadRouteData(DataSet.file(dataSet, "routes.xml"));
+		passengers.loadPassengerNumbersData(DataSet.file(dataSet, "passengers.db"));
+
+		Aircraft a = aircraft.getAllAircraft().get(0);
+		Route r = routes.getAllRoutes().get(0);
+		tailCode = a.getTailCode();
+		typeCode = a.getTypeCode();
+		seats = a.getSeats();
+		airportCode = r.getDepartureAirportCode();
+		dayOfWeek = r.getDayOfWeek();
+		flightNumber = r.getFlightNumber();
+	}
+
+	/**
+	 * Closes the connection left by the last passenger number lookup, each of which closes the one before
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		passengers.reset();
+	}
+
+	@Benchmark
+	public Object findAircraftBySeats() {
+		return aircraft.findAircraftBySeats(seats);
+	}
+
+	@Benchmark
+	public Object findAircraftByStartingPosition() {
+		return aircraft.findAircraftByStartingPosition(airportCode);
+	}
+
+	@Benchmark
+	public Aircraft findAircraftByTailCode() {
+		return aircraft.findAircraftByTailCode(tailCode);
+	}
+
+	@Benchmark
+	public Object findAircraftByType() {
+		return aircraft.findAircraftByType(typeCode);
+	}
+
+	@Benchmark
+	public Object findCabinCrewByHomeBase() {
+		return crew.findCabinCrewByHomeBase(airportCode);
+	}
+
+	@Benchmark
+	public Object findCabinCrewByHomeBaseAndTypeRating() {
+		return crew.findCabinCrewByHomeBaseAndTypeRating(typeCode, airportCode);
+	}
+
+	@Benchmark
+	public Object findCabinCrewByTypeRating() {
+		return crew.findCabinCrewByTypeRating(typeCode);
+	}
+
+	@Benchmark
+	public Object findPilotsByHomeBase() {
+		return crew.findPilotsByHomeBase(airportCode);
+	}
+
+	@Benchmark
+	public Object findPilotsByHomeBaseAndTypeRating() {
+		return crew.findPilotsByHomeBaseAndTypeRating(typeCode, airportCode);
+	}
+
+	@Benchmark
+	public Object findPilotsByTypeRating() {
+		return crew.findPilotsByTypeRating(typeCode);
+	}
+
+	@Benchmark
+	public Object findRoutesByDayOfWeek() {
+		return routes.findRoutesByDayOfWeek(dayOfWeek);
+	}
+
+	@Benchmark
+	public Object findRoutesByDepartureAirportAndDay() {
+		return routes.findRoutesByDepartureAirportAndDay(airportCode, dayOfWeek);
+	}
+
+	@Benchmark
+	public Object findRoutesDepartingAirport() {
+		return routes.findRoutesDepartingAirport(airportCode);
+	}
+
+	@Benchmark
+	public Object findRoutesbyDate() {
+		return routes.findRoutesbyDate(date);
+	}
+
+	@Benchmark
+	public int getPassengerNumbersFor() {
+		return passengers.getPassengerNumbersFor(flightNumber, date);
+	}
+
+}
@@ -0,0 +1,69 @@
+package solution;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import baseclasses.DataLoadingException;
+
+/**
+ * Measures each DAO's load method reading a whole file into a fresh DAO.
+ * The passenger numbers are loaded into one DAO for the whole trial instead, as each load closes the connection
+ * the last one opened and only the last is left for tearDown() to close
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadingBenchmark {
+
+	@Param({"mini", "schedule", "full"})
+	public String dataSet;
+
+	PassengerNumbersDAO passengers = new PassengerNumbersDAO();
+
+	@Benchmark
+	public AircraftDAO loadAircraftData() throws DataLoadingException {
+		AircraftDAO dao = new AircraftDAO();
+		dao.loadAircraftData(DataSet.file(dataSet, "aircraft.csv"));
+		return dao;
+	}
+
+	@Benchmark
+	public CrewDAO loadCrewData() throws DataLoadingException {
+		CrewDAO dao = new CrewDAO();
+		dao.loadCrewData(DataSet.file(dataSet, "crew.json"));
+		return dao;
+	}
+
+	@Benchmark
+	public RouteDAO loadRouteData() throws DataLoadingException {
+		RouteDAO dao = new RouteDAO();
+		dao.loadRouteData(DataSet.file(dataSet, "routes.xml"));
+		return dao;
+	}
+
+	@Benchmark
+	public PassengerNumbersDAO loadPassengerNumbersData() throws DataLoadingException {
+		passengers.loadPassengerNumbersData(DataSet.file(dataSet, "passengers.db"));
+		return passengers;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		passengers.reset();
+	}
+
+}
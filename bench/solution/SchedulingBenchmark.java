@@ -0,0 +1,93 @@
+package solution;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import baseclasses.DataLoadingException;
+import baseclasses.QualityScoreCalculator;
+import baseclasses.Schedule;
+
+/**
+ * Measures generating a schedule and scoring one, each with its own state.
+ * The scheduler moves aircraft and crew as it allocates them, so generation reloads the aircraft and crew before every call.
+ * Scoring keeps the aircraft and crew its schedule was generated with for the whole trial, as the schedule refers to those objects
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SchedulingBenchmark {
+
+	static final LocalDate START_DATE = LocalDate.parse("2021-07-01");
+	static final LocalDate END_DATE = LocalDate.parse("2021-08-31");
+
+	@State(Scope.Benchmark)
+	public static class Generation {
+		@Param({"mini", "schedule", "full"})
+		public String dataSet;
+
+		AircraftDAO aircraft = new AircraftDAO();
+		CrewDAO crew = new CrewDAO();
+		RouteDAO routes = new RouteDAO();
+		PassengerNumbersDAO passengers = new PassengerNumbersDAO();
+
+		@Setup(Level.Trial)
+		public void load() throws DataLoadingException {
+			routes.loadRouteData(DataSet.file(dataSet, "routes.xml"));
+			passengers.loadPassengerNumbersData(DataSet.file(dataSet, "passengers.db"));
+		}
+
+		@Setup(Level.Invocation)
+		public void reloadFleetAndCrew() throws DataLoadingException {
+			aircraft.reset();
+			crew.reset();
+			aircraft.loadAircraftData(DataSet.file(dataSet, "aircraft.csv"));
+			crew.loadCrewData(DataSet.file(dataSet, "crew.json"));
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class Scoring {
+		@Param({"mini", "schedule", "full"})
+		public String dataSet;
+
+		AircraftDAO aircraft = new AircraftDAO();
+		CrewDAO crew = new CrewDAO();
+		RouteDAO routes = new RouteDAO();
+		PassengerNumbersDAO passengers = new PassengerNumbersDAO();
+		Schedule schedule;
+
+		@Setup(Level.Trial)
+		public void load() throws DataLoadingException {
+			aircraft.loadAircraftData(DataSet.file(dataSet, "aircraft.csv"));
+			crew.loadCrewData(DataSet.file(dataSet, "crew.json"));
+			routes.loadRouteData(DataSet.file(dataSet, "routes.xml"));
+			passengers.loadPassengerNumbersData(DataSet.file(dataSet, "passengers.db"));
+			schedule = new Scheduler().generateSchedule(aircraft, crew, routes, passengers, START_DATE, END_DATE);
+		}
+	}
+
+	@Benchmark
+	public Schedule generateSchedule(Generation state) {
+		return new Scheduler().generateSchedule(state.aircraft, state.crew, state.routes, state.passengers, START_DATE, END_DATE);
+	}
+
+	@Benchmark
+	public long calculateQualityScore(Scoring state) {
+		return new QualityScoreCalculator(state.aircraft, state.crew, state.passengers, state.schedule).calculateQualityScore();
+	}
+
+}
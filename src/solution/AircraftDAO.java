@@ -31,6 +31,8 @@ public class AircraftDAO implements IAircraftDAO {
 	 */
 	@Override
 	public void loadAircraftData(Path p) throws DataLoadingException {	
+		DataLoadEvent event = DataLoadEvent.start("AircraftDAO");
+		int before = aircraft.size();
 		try {
 			//open the file
 			BufferedReader reader = Files.newBufferedReader(p);
@@ -72,6 +74,7 @@ public class AircraftDAO implements IAircraftDAO {
 					throw new DataLoadingException(e);
 				}
 			}
+			event.finish(p, aircraft.size() - before);
 		}
 		
 		catch (IOException | NullPointerException ioe) {
@@ -0,0 +1,166 @@
+package solution;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import baseclasses.DataLoadingException;
+import baseclasses.IPassengerNumbersDAO;
+
+/**
+ * BatchMain schedules every scenario in a manifest file in one JVM, without any of Main's hard-coded paths.
+ * Each line of the manifest is "name dataDir startDate endDate [prefix]", e.g. "july ./data 2021-07-01 2021-07-31",
+ * where the data directory holds aircraft.csv, crew.json, routes.xml and passengernumbers.db, or
+ * prefix + aircraft.csv, ... and prefix + passengers.db when a prefix such as "mini_" is given.
+ * Blank lines and lines starting with # are ignored.
+ * Each data directory is loaded once however many lines use it, and its scenarios are run together on a ScenarioRunner.
+ * For each scenario the schedule is saved with ScheduleStore as name.schedule and exported with ScheduleExporter
+ * as name-flights.csv, the CapacityAnalyser's bottleneck report is written to name-bottlenecks.txt, and a line is added to scores.csv.
+ * appcds.sh in the project root builds a class-data sharing archive to cut start-up time for single runs
+ */
+public class BatchMain {
+
+	/**
+	 * Runs a manifest from the command line
+	 * @param args the manifest file and the directory to write the output to
+	 */
+	public static void main(String[] args) {
+		if(args.length < 2) {
+			System.err.println("Usage: BatchMain <manifest> <output dir>");
+			System.exit(2);
+		}
+		try {
+			Map<String, List<Scenario>> scenarios = readManifest(Paths.get(args[0]));
+			Path outDir = Paths.get(args[1]);
+			Files.createDirectories(outDir);
+
+			boolean failed = false;
+			try(BufferedWriter scores = Files.newBufferedWriter(outDir.resolve("scores.csv"))) {
+				scores.write("Scenario,DataDir,StartDate,EndDate,Flights,Remaining,QualityScore,Millis");
+				scores.newLine();
+				for(Map.Entry<String, List<Scenario>> e : scenarios.entrySet()) {
+					String[] source = e.getKey().split("\\|", -1);
+					try {
+						if(!runDataSet(Paths.get(source[0]), source[1], e.getValue(), outDir, scores)) {
+							failed = true;
+						}
+					}
+					catch(DataLoadingException dle) {
+						//Carry on with the other data sets, but exit with an error at the end
+						System.err.println("Error loading data from " + source[0] + ": " + dle.getCause());
+						failed = true;
+					}
+				}
+			}
+			if(failed) {
+				System.exit(1);
+			}
+		}
+		catch(IOException | IllegalArgumentException | InterruptedException e) {
+			System.err.println("Error running batch: " + e);
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Reads the manifest, grouping the scenarios by the data they use in the order they first appear
+	 * @return the scenarios, keyed by "dataDir|prefix"
+	 * @throws IllegalArgumentException if a line is badly formed or a name is used twice
+	 */
+	static Map<String, List<Scenario>> readManifest(Path manifest) throws IOException {
+		Map<String, List<Scenario>> scenarios = new LinkedHashMap<>();
+		List<String> names = new ArrayList<>();
+		int lineNumber = 0;
+		for(String line : Files.readAllLines(manifest)) {
+			lineNumber++;
+			line = line.trim();
+			if(line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String[] fields = line.split("\\s+");
+			if(fields.length < 4 || fields.length > 5) {
+				throw new IllegalArgumentException(manifest + " line " + lineNumber + ": expected name dataDir startDate endDate [prefix]");
+			}
+			if(names.contains(fields[0])) {
+				throw new IllegalArgumentException(manifest + " line " + lineNumber + ": scenario " + fields[0] + " is listed twice");
+			}
+			names.add(fields[0]);
+			try {
+				Scenario s = new Scenario(fields[0], LocalDate.parse(fields[2]), LocalDate.parse(fields[3]));
+				String key = fields[1] + "|" + (fields.length == 5 ? fields[4] : "");
+				scenarios.computeIfAbsent(key, k -> new ArrayList<>()).add(s);
+			}
+			catch(DateTimeParseException e) {
+				throw new IllegalArgumentException(manifest + " line " + lineNumber + ": " + e.getMessage());
+			}
+		}
+		return scenarios;
+	}
+
+	/**
+	 * Loads one data set and runs all of its scenarios
+	 * @return false if any scenario failed
+	 */
+	private static boolean runDataSet(Path dataDir, String prefix, List<Scenario> scenarios, Path outDir, BufferedWriter scores) throws DataLoadingException, IOException, InterruptedException {
+		AircraftDAO aircraft = new AircraftDAO();
+		CrewDAO crew = new CrewDAO();
+		RouteDAO routes = new RouteDAO();
+		PassengerNumbersDAO passengers = new PassengerNumbersDAO();
+		aircraft.loadAircraftData(dataDir.resolve(prefix + "aircraft.csv"));
+		crew.loadCrewData(dataDir.resolve(prefix + "crew.json"));
+		routes.loadRouteData(dataDir.resolve(prefix + "routes.xml"));
+		passengers.loadPassengerNumbersData(dataDir.resolve(prefix.isEmpty() ? "passengernumbers.db" : prefix + "passengers.db"));
+
+		return runScenarios(dataDir, scenarios, aircraft, crew, routes, passengers, outDir, scores);
+	}
+
+	/**
+	 * Runs the scenarios for one loaded data set, writing each result as soon as it finishes.
+	 * A scenario that fails is reported and left out of scores.csv, and the rest still run
+	 * @return false if any scenario failed
+	 */
+	static boolean runScenarios(Path dataDir, List<Scenario> scenarios, AircraftDAO aircraft, CrewDAO crew, RouteDAO routes, IPassengerNumbersDAO passengers,
+			Path outDir, BufferedWriter scores) throws IOException, InterruptedException {
+		ScenarioRunner runner = new ScenarioRunner(aircraft, crew, routes, passengers, Runtime.getRuntime().availableProcessors());
+		List<String> failures = new ArrayList<>();
+		try {
+			runner.runAll(scenarios, result -> {
+				Scenario s = result.getScenario();
+				try {
+					Path saved = outDir.resolve(s.getName() + ".schedule");
+					ScheduleStore.save(result.getSchedule(), result.getAircraft(), result.getCrew(), saved);
+					ScheduleExporter.exportFlights(result.getSchedule(), outDir.resolve(s.getName() + "-flights.csv"), ScheduleExporter.Format.CSV);
+					Files.write(outDir.resolve(s.getName() + "-bottlenecks.txt"), result.getBottlenecks());
+					scores.write(s.getName() + "," + dataDir + "," + s.getStartDate() + "," + s.getEndDate() + ","
+							+ (result.getSchedule().getCompletedAllocations().size() + result.getSchedule().getRemainingAllocations().size()) + ","
+							+ result.getSchedule().getRemainingAllocations().size() + "," + result.getScore() + "," + result.getMillis());
+					scores.newLine();
+					scores.flush();
+				}
+				catch(IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				System.out.println(s.getName() + ": " + result.getScore() + " in " + result.getMillis() + "ms");
+			}, (s, e) -> {
+				System.err.println(s.getName() + ": failed: " + e);
+				failures.add(s.getName());
+			});
+		}
+		catch(UncheckedIOException e) {
+			throw e.getCause();
+		}
+		finally {
+			runner.shutdown();
+		}
+		return failures.isEmpty();
+	}
+
+}
@@ -0,0 +1,248 @@
+package solution;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import baseclasses.Aircraft;
+import baseclasses.CabinCrew;
+import baseclasses.IAircraftDAO;
+import baseclasses.ICrewDAO;
+import baseclasses.IRouteDAO;
+import baseclasses.Pilot;
+import baseclasses.Pilot.Rank;
+import baseclasses.Route;
+
+/**
+ * The CapacityAnalyser runs once before scheduling and compares the departures from every airport on every day
+ * against the crew and aircraft that can reach that airport.
+ * It produces pruning hints so the scheduler can skip fallback tiers that cannot succeed, and a bottleneck report.
+ * Only the network-wide counts behind the hints are worked out up front; the per-airport and per-day demand tables
+ * the report needs are built the first time they are asked for, so scheduling never pays for them
+ */
+public class CapacityAnalyser {
+
+	private IRouteDAO routeDAO;
+
+	//Demand per "airport|date" key, null until first needed
+	Map<String, Integer> flightDemand;
+
+	//Crew supply per airport, counted from where crew start.
+	//Crew are counted once each, and only if they hold a rating for at least one type in the fleet
+	Map<String, Integer> captainSupply = new HashMap<>();
+	Map<String, Integer> pilotSupply = new HashMap<>();
+	Map<String, Integer> cabinCrewSupply = new HashMap<>();
+
+	//Supply per type rating across the whole network
+	Map<String, Integer> qualifiedCaptains = new HashMap<>();
+	Map<String, Integer> qualifiedPilots = new HashMap<>();
+	Map<String, Integer> qualifiedCabinCrew = new HashMap<>();
+
+	//Smallest cabin crew requirement of any aircraft in the fleet
+	int minCabinCrewRequired = Integer.MAX_VALUE;
+
+	//Airports that each airport can be reached from with a single leg, built with flightDemand
+	Map<String, Set<String>> feederAirports = new HashMap<>();
+
+	Set<String> airports = new TreeSet<>();
+	Set<String> types = new TreeSet<>();
+	int numberOfCaptains = 0;
+	LocalDate startDate;
+	LocalDate endDate;
+
+	/**
+	 * Counts the crew and fleet for the given horizon. Crew supply is taken from where the crew are now,
+	 * so the analyser must be created before scheduling moves them
+	 * @param aircraftDAO the loaded aircraft
+	 * @param crewDAO the loaded crew
+	 * @param routeDAO the loaded routes
+	 * @param startDate the first day of the horizon
+	 * @param endDate the last day of the horizon
+	 */
+	public CapacityAnalyser(IAircraftDAO aircraftDAO, ICrewDAO crewDAO, IRouteDAO routeDAO, LocalDate startDate, LocalDate endDate) {
+		this.routeDAO = routeDAO;
+		this.startDate = startDate;
+		this.endDate = endDate;
+
+		for(Aircraft a : aircraftDAO.getAllAircraft()) {
+			types.add(a.getTypeCode());
+			minCabinCrewRequired = Math.min(minCabinCrewRequired, a.getCabinCrewRequired());
+		}
+		if(minCabinCrewRequired == Integer.MAX_VALUE) {
+			minCabinCrewRequired = 0;
+		}
+
+		for(Pilot p : crewDAO.getAllPilots()) {
+			if(p.getRank() == Rank.CAPTAIN) {
+				numberOfCaptains++;
+			}
+			for(String type : p.getTypeRatings()) {
+				qualifiedPilots.merge(type, 1, Integer::sum);
+				if(p.getRank() == Rank.CAPTAIN) {
+					qualifiedCaptains.merge(type, 1, Integer::sum);
+				}
+			}
+			if(ratedForFleet(p.getTypeRatings())) {
+				pilotSupply.merge(p.getHomeBase(), 1, Integer::sum);
+				if(p.getRank() == Rank.CAPTAIN) {
+					captainSupply.merge(p.getHomeBase(), 1, Integer::sum);
+				}
+			}
+		}
+
+		for(CabinCrew cc : crewDAO.getAllCabinCrew()) {
+			for(String type : cc.getTypeRatings()) {
+				qualifiedCabinCrew.merge(type, 1, Integer::sum);
+			}
+			if(ratedForFleet(cc.getTypeRatings())) {
+				cabinCrewSupply.merge(cc.getHomeBase(), 1, Integer::sum);
+			}
+		}
+	}
+
+	/**
+	 * Builds the demand and route tables the first time the report or a demand figure is asked for
+	 */
+	private void buildDemand() {
+		if(flightDemand != null) {
+			return;
+		}
+		flightDemand = new HashMap<>();
+		for(Route r : routeDAO.getAllRoutes()) {
+			airports.add(r.getDepartureAirportCode());
+			airports.add(r.getArrivalAirportCode());
+			feederAirports.computeIfAbsent(r.getArrivalAirportCode(), k -> new HashSet<>()).add(r.getDepartureAirportCode());
+		}
+		for(LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+			for(Route r : routeDAO.findRoutesbyDate(date)) {
+				flightDemand.merge(key(r.getDepartureAirportCode(), date.toString()), 1, Integer::sum);
+			}
+		}
+	}
+
+	private boolean ratedForFleet(List<String> typeRatings) {
+		for(String type : typeRatings) {
+			if(types.contains(type)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String key(String first, String second) {
+		return first + "|" + second;
+	}
+
+	/**
+	 * Counts the supply held in a table at an airport plus every airport with a direct leg into it
+	 */
+	private int reachableSupply(Map<String, Integer> supply, String airportCode) {
+		int total = supply.getOrDefault(airportCode, 0);
+		for(String feeder : feederAirports.getOrDefault(airportCode, new HashSet<>())) {
+			if(!feeder.equals(airportCode)) {
+				total += supply.getOrDefault(feeder, 0);
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Returns the number of flights departing the given airport on the given date
+	 * @param airportCode the three letter airport code, e.g. "MAN"
+	 * @param date the date to check
+	 * @return the number of departures in the horizon on that date
+	 */
+	public int getFlightDemand(String airportCode, LocalDate date) {
+		buildDemand();
+		return flightDemand.getOrDefault(key(airportCode, date.toString()), 0);
+	}
+
+	/**
+	 * Returns the fewest cabin crew the departures from the airport on the date could need,
+	 * if each were flown by the aircraft in the fleet needing the fewest
+	 * @param airportCode the three letter airport code, e.g. "MAN"
+	 * @param date the date to check
+	 * @return the lower bound on cabin crew demand
+	 */
+	public int getCabinCrewDemand(String airportCode, LocalDate date) {
+		return getFlightDemand(airportCode, date) * minCabinCrewRequired;
+	}
+
+	/**
+	 * Returns true if at least one captain anywhere holds a rating for the given type
+	 * @param typeCode the aircraft type code, e.g. "A320"
+	 * @return false if searching for a qualified captain is certain to fail
+	 */
+	public boolean hasQualifiedCaptains(String typeCode) {
+		return qualifiedCaptains.getOrDefault(typeCode, 0) > 0;
+	}
+
+	/**
+	 * Returns true if at least one pilot anywhere holds a rating for the given type
+	 * @param typeCode the aircraft type code, e.g. "A320"
+	 * @return false if searching for a qualified first officer is certain to fail
+	 */
+	public boolean hasQualifiedPilots(String typeCode) {
+		return qualifiedPilots.getOrDefault(typeCode, 0) > 0;
+	}
+
+	/**
+	 * Returns true if at least one cabin crew member anywhere holds a rating for the given type
+	 * @param typeCode the aircraft type code, e.g. "A320"
+	 * @return false if searching for qualified cabin crew is certain to fail
+	 */
+	public boolean hasQualifiedCabinCrew(String typeCode) {
+		return qualifiedCabinCrew.getOrDefault(typeCode, 0) > 0;
+	}
+
+	/**
+	 * Returns true if any captains are loaded at all
+	 * @return false if every captain-only tier is certain to fail
+	 */
+	public boolean hasCaptains() {
+		return numberOfCaptains > 0;
+	}
+
+	/**
+	 * Produces one line for every type nobody can crew, and for every airport and day whose departures need
+	 * more captains, pilots or cabin crew than can reach it. Crew count towards any airport they can reach if they
+	 * hold a rating for any type in the fleet, so the report only lists shortages no choice of aircraft could avoid.
+	 * Supply is counted from where crew start, so it does not follow them as the schedule moves them around
+	 * @return a list of human readable bottleneck descriptions, empty if none were found
+	 */
+	public List<String> getBottleneckReport() {
+		buildDemand();
+		List<String> report = new ArrayList<>();
+		for(String type : types) {
+			if(!hasQualifiedCaptains(type)) {
+				report.add(type + ": no qualified captains in the network");
+			}
+			if(!hasQualifiedCabinCrew(type)) {
+				report.add(type + ": no qualified cabin crew in the network");
+			}
+		}
+
+		for(String airport : airports) {
+			int captains = reachableSupply(captainSupply, airport);
+			//Either rank can sit in the first officer's seat
+			int pilots = reachableSupply(pilotSupply, airport);
+			int cabinCrew = reachableSupply(cabinCrewSupply, airport);
+			for(LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+				int flights = getFlightDemand(airport, date);
+				int cabinDemand = getCabinCrewDemand(airport, date);
+				if(captains < flights || pilots < flights * 2 || cabinCrew < cabinDemand) {
+					report.add(airport + " " + date + ": " + flights + " flights need "
+							+ flights + " captains (" + captains + " reachable), "
+							+ (flights * 2) + " pilots (" + pilots + " reachable), "
+							+ cabinDemand + " cabin crew (" + cabinCrew + " reachable)");
+				}
+			}
+		}
+		return report;
+	}
+
+}
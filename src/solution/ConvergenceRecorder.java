@@ -0,0 +1,220 @@
+package solution;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import baseclasses.FlightInfo;
+import baseclasses.IAircraftDAO;
+import baseclasses.ICrewDAO;
+import baseclasses.IPassengerNumbersDAO;
+import baseclasses.IRouteDAO;
+import baseclasses.IScheduler;
+import baseclasses.Schedule;
+import baseclasses.SchedulerRunner;
+
+/**
+ * The ConvergenceRecorder is a SchedulerRunner that records every schedule the scheduler reports:
+ * how long into the run it was reported, the quality points of the flights allocated so far and how many flights were still unallocated.
+ * While the scheduler runs, each report only notes the time and which flights were completed, so recording barely slows the search.
+ * The samples are scored the first time they are asked for, after the run, by rebuilding each one from the final schedule.
+ * Samples go into a fixed-size ring buffer, so a long run keeps only the latest ones,
+ * and can be written out as a CSV trace after each run to see how quickly the schedule improves
+ */
+public class ConvergenceRecorder extends SchedulerRunner {
+
+	private IAircraftDAO aircraftDAO;
+	private ICrewDAO crewDAO;
+	private IRouteDAO routeDAO;
+	private IPassengerNumbersDAO passengerNumbersDAO;
+
+	private long[] elapsedNanos;
+	private List<FlightInfo>[] completed;
+	private long[] scores;
+	private int[] remaining;
+	private int next = 0;
+	private int count = 0;
+	private long startNanos = System.nanoTime();
+
+	//The schedule the last run returned, which every sample is a part of, and whether the samples have been scored against it
+	private Schedule result;
+	private int flights;
+	private boolean scored = true;
+
+	/**
+	 * Creates a recorder that runs the given scheduler in the same way as SchedulerRunner
+	 * @param aircraftDAO the loaded aircraft
+	 * @param crewDAO the loaded crew
+	 * @param routeDAO the loaded routes
+	 * @param passengerNumbersDAO the loaded passenger numbers, used to score the reported schedules
+	 * @param startDate the first day to schedule
+	 * @param endDate the last day to schedule
+	 * @param scheduler the scheduler to run
+	 * @param capacity the number of samples to keep; once full the oldest are overwritten
+	 * @throws IllegalArgumentException if the capacity is not at least 1
+	 */
+	@SuppressWarnings("unchecked")
+	public ConvergenceRecorder(IAircraftDAO aircraftDAO, ICrewDAO crewDAO, IRouteDAO routeDAO, IPassengerNumbersDAO passengerNumbersDAO,
+			LocalDate startDate, LocalDate endDate, IScheduler scheduler, int capacity) {
+		super(aircraftDAO, crewDAO, routeDAO, passengerNumbersDAO, startDate, endDate, scheduler);
+		if(capacity < 1) {
+			throw new IllegalArgumentException("The capacity must be at least 1, not " + capacity);
+		}
+		this.aircraftDAO = aircraftDAO;
+		this.crewDAO = crewDAO;
+		this.routeDAO = routeDAO;
+		this.passengerNumbersDAO = passengerNumbersDAO;
+		elapsedNanos = new long[capacity];
+		completed = new List[capacity];
+		scores = new long[capacity];
+		remaining = new int[capacity];
+	}
+
+	/**
+	 * Runs the scheduler, clearing the samples from any previous run first
+	 * @return the best schedule reported, as SchedulerRunner.run() does
+	 */
+	@Override
+	public Schedule run() {
+		synchronized(this) {
+			next = 0;
+			count = 0;
+			result = null;
+			scored = true;
+			startNanos = System.nanoTime();
+		}
+		Schedule schedule = super.run();
+		synchronized(this) {
+			result = schedule;
+			scored = false;
+		}
+		return schedule;
+	}
+
+	/**
+	 * Notes when the schedule was reported and which flights it had completed, and passes it on to SchedulerRunner.
+	 * Nothing is copied or scored here, as this runs on the scheduler's thread while the schedule is being built
+	 * @param schedule the schedule being reported
+	 */
+	@Override
+	public void reportBestScheduleSoFar(Schedule schedule) {
+		long elapsed = System.nanoTime() - startNanos;
+		List<FlightInfo> done = schedule.getCompletedAllocations();
+		synchronized(this) {
+			elapsedNanos[next] = elapsed;
+			completed[next] = done;
+			next = (next + 1) % elapsedNanos.length;
+			count = Math.min(count + 1, elapsedNanos.length);
+		}
+		super.reportBestScheduleSoFar(schedule);
+	}
+
+	/**
+	 * Scores every sample of the last run, if that has not been done yet.
+	 * Each sample is scored on a copy of the final schedule holding only the flights it had completed,
+	 * built up sample by sample as the scheduler only ever adds flights. The copy is scored on the points of those flights,
+	 * as QualityScoreCalculator gives -1 for anything that is not completed. The aircraft and crew are the ones the run
+	 * finished with, so rules that read where they are based see them as they were at the end of the run
+	 */
+	private synchronized void score() {
+		if(scored) {
+			return;
+		}
+		flights = result.getCompletedAllocations().size() + result.getRemainingAllocations().size();
+		IPassengerNumbersDAO forecast = PassengerForecast.forSchedule(passengerNumbersDAO, result);
+
+		Schedule partial = null;
+		Map<Long, FlightInfo> targets = null;
+		Set<FlightInfo> added = Collections.newSetFromMap(new IdentityHashMap<>());
+		for(int i = 0; i < count; i++) {
+			int j = index(i);
+			int kept = 0;
+			for(FlightInfo f : completed[j]) {
+				if(added.contains(f)) {
+					kept++;
+				}
+			}
+			if(partial == null || kept < added.size()) {
+				//Only if a flight was taken away again between reports; start the copy afresh
+				partial = new Schedule(routeDAO, result.getStartDate(), result.getEndDate());
+				targets = ScheduleStore.remainingByKey(partial);
+				added.clear();
+			}
+			for(FlightInfo f : completed[j]) {
+				if(added.add(f)) {
+					ScheduleStore.copyAllocation(result, f, partial, targets);
+				}
+			}
+			scores[j] = new QualityEvaluator(aircraftDAO, crewDAO, forecast, partial).calculateAllocatedPoints();
+			remaining[j] = flights - completed[j].size();
+			//Only the score is kept, so a long run does not hold every list of flights once it has been scored
+			completed[j] = null;
+		}
+		scored = true;
+	}
+
+	/**
+	 * Returns the number of samples held from the last run
+	 * @return the number of samples, at most the capacity
+	 */
+	public synchronized int getSampleCount() {
+		return count;
+	}
+
+	/**
+	 * Estimates the earliest point in the run at which the schedule was heading for a score within a given fraction of the final score.
+	 * A partial schedule's points are projected over all of its flights, scaling them by total flights over allocated flights.
+	 * This is only an estimate, as the flights allocated first are not a fair sample of the whole schedule,
+	 * and the first sample whose projection is that close to the final completed score is returned
+	 * @param tolerance how far from the final score is close enough, e.g. 0.01 for within 1%
+	 * @return the elapsed milliseconds of that sample, or -1 if the run did not end with a completed schedule
+	 */
+	public synchronized long getMillisToReach(double tolerance) {
+		score();
+		if(count == 0 || remaining[index(count - 1)] > 0) {
+			return -1;
+		}
+		long finalScore = scores[index(count - 1)];
+		for(int i = 0; i < count; i++) {
+			int j = index(i);
+			int allocated = flights - remaining[j];
+			if(allocated > 0 && Math.abs(Math.round(scores[j] * ((double) flights / allocated)) - finalScore) <= finalScore * tolerance) {
+				return elapsedNanos[j] / 1_000_000;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Writes the samples from the last run to a CSV file, oldest first, scoring them first if need be.
+	 * QualityScore is the points for the flights allocated at the time
+	 * @param p the file to write to, replaced if it exists
+	 * @throws IOException if the file cannot be written
+	 */
+	public synchronized void writeTrace(Path p) throws IOException {
+		score();
+		try(BufferedWriter out = Files.newBufferedWriter(p)) {
+			out.write("ElapsedMillis,QualityScore,RemainingFlights");
+			out.newLine();
+			for(int i = 0; i < count; i++) {
+				int j = index(i);
+				out.write((elapsedNanos[j] / 1_000_000) + "," + scores[j] + "," + remaining[j]);
+				out.newLine();
+			}
+		}
+	}
+
+	/**
+	 * Turns the position of a sample, counting from the oldest held, into its index in the ring buffer
+	 */
+	private int index(int i) {
+		return (next - count + i + elapsedNanos.length) % elapsedNanos.length;
+	}
+
+}
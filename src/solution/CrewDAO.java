@@ -32,6 +32,8 @@ public class CrewDAO implements ICrewDAO {
 	 */
 	@Override
 	public void loadCrewData(Path p) throws DataLoadingException {
+		DataLoadEvent event = DataLoadEvent.start("CrewDAO");
+		int before = crewList.size();
 		try {
 			//Open the file
 			BufferedReader reader = Files.newBufferedReader(p);
@@ -79,7 +81,7 @@ public class CrewDAO implements ICrewDAO {
 			catch(JSONException | IllegalArgumentException e) {
 				throw new DataLoadingException(e);
 			}
-			
+			event.finish(p, crewList.size() - before);
 		}
 		catch(IOException | NullPointerException ioe) {
 			throw new DataLoadingException(ioe);
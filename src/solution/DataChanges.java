@@ -0,0 +1,129 @@
+package solution;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import baseclasses.Aircraft;
+import baseclasses.Crew;
+import baseclasses.FlightInfo;
+import baseclasses.Route;
+import baseclasses.Schedule;
+
+/**
+ * DataChanges holds the record-level differences the DataFileWatcher applied to the live DAOs
+ * after one of the data files changed on disk
+ */
+public class DataChanges {
+
+	/**
+	 * The inserts, updates and deletes applied for one kind of record.
+	 * Updated aircraft and crew are the live objects, changed in place, so existing schedules still refer to them.
+	 * Updated routes are new objects; the ones they replaced, which existing schedules refer to, are in getReplaced()
+	 */
+	public static class Changes<T> {
+		List<T> inserted = new ArrayList<>();
+		List<T> updated = new ArrayList<>();
+		List<T> replaced = new ArrayList<>();
+		List<T> deleted = new ArrayList<>();
+
+		public List<T> getInserted() {
+			return inserted;
+		}
+
+		public List<T> getUpdated() {
+			return updated;
+		}
+
+		/**
+		 * Returns the records that updated ones took the place of in the DAO, in the same order as getUpdated()
+		 * @return the replaced records; empty for aircraft and crew, which are updated in place
+		 */
+		public List<T> getReplaced() {
+			return replaced;
+		}
+
+		public List<T> getDeleted() {
+			return deleted;
+		}
+
+		public boolean isEmpty() {
+			return inserted.isEmpty() && updated.isEmpty() && deleted.isEmpty();
+		}
+	}
+
+	Changes<Route> routes = new Changes<>();
+	Changes<Aircraft> aircraft = new Changes<>();
+	Changes<Crew> crew = new Changes<>();
+
+	public Changes<Route> getRoutes() {
+		return routes;
+	}
+
+	public Changes<Aircraft> getAircraft() {
+		return aircraft;
+	}
+
+	public Changes<Crew> getCrew() {
+		return crew;
+	}
+
+	/**
+	 * Returns true if nothing changed
+	 * @return true if there were no inserts, updates or deletes of any kind
+	 */
+	public boolean isEmpty() {
+		return routes.isEmpty() && aircraft.isEmpty() && crew.isEmpty();
+	}
+
+	/**
+	 * Finds the flights in a schedule that are affected by these changes: those on a replaced or deleted route,
+	 * or allocated an updated or deleted aircraft or crew member. Inserted routes have no flights in an
+	 * existing schedule, so picking them up needs a new one
+	 * @param schedule the schedule to check
+	 * @return the affected flights, in time order
+	 */
+	public List<FlightInfo> getAffectedFlights(Schedule schedule) {
+		Set<Object> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+		changed.addAll(routes.replaced);
+		changed.addAll(routes.deleted);
+
+		List<FlightInfo> affected = new ArrayList<>();
+		for(FlightInfo f : schedule.getRemainingAllocations()) {
+			if(changed.contains(f.getFlight())) {
+				affected.add(f);
+			}
+		}
+		for(FlightInfo f : schedule.getCompletedAllocations()) {
+			if(changed.contains(f.getFlight())) {
+				affected.add(f);
+			}
+		}
+
+		Set<FlightInfo> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+		seen.addAll(affected);
+		List<FlightInfo> allocated = new ArrayList<>();
+		for(Aircraft a : aircraft.updated) {
+			allocated.addAll(schedule.getCompletedAllocationsFor(a));
+		}
+		for(Aircraft a : aircraft.deleted) {
+			allocated.addAll(schedule.getCompletedAllocationsFor(a));
+		}
+		for(Crew c : crew.updated) {
+			allocated.addAll(schedule.getCompletedAllocationsFor(c));
+		}
+		for(Crew c : crew.deleted) {
+			allocated.addAll(schedule.getCompletedAllocationsFor(c));
+		}
+		for(FlightInfo f : allocated) {
+			if(seen.add(f)) {
+				affected.add(f);
+			}
+		}
+
+		affected.sort(null);
+		return affected;
+	}
+
+}
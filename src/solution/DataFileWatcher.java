@@ -0,0 +1,352 @@
+package solution;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import baseclasses.Aircraft;
+import baseclasses.CabinCrew;
+import baseclasses.Crew;
+import baseclasses.DataLoadingException;
+import baseclasses.Pilot;
+import baseclasses.Route;
+
+/**
+ * The DataFileWatcher watches the aircraft, crew and route files with a WatchService and, when one changes,
+ * works out which records were inserted, updated or deleted since it was last read.
+ * Only those changes are applied to the live DAOs, and listeners are told what changed
+ * so rescheduling can be limited to the affected flights.
+ * The DAOs are not thread-safe, so the watcher's thread only reads the changed files and queues them.
+ * Nothing in the live DAOs changes until the thread that owns them calls applyPending(), e.g. between scheduling runs.
+ * An updated route is replaced with a new object, so flights already in a schedule keep their times.
+ * Updated aircraft and crew are changed in place, as schedules refer to them by identity;
+ * flights already allocated them may no longer be valid and are found with DataChanges.getAffectedFlights()
+ */
+public class DataFileWatcher implements Runnable {
+
+	private Path aircraftFile;
+	private Path crewFile;
+	private Path routeFile;
+
+	private AircraftDAO aircraftDAO;
+	private CrewDAO crewDAO;
+	private RouteDAO routeDAO;
+
+	//What each file contained the last time it was read, so runtime changes to the live objects are not seen as edits
+	private AircraftDAO lastAircraft = new AircraftDAO();
+	private CrewDAO lastCrew = new CrewDAO();
+	private RouteDAO lastRoutes = new RouteDAO();
+
+	//The latest read of each file not yet applied, guarded by this
+	private AircraftDAO pendingAircraft;
+	private CrewDAO pendingCrew;
+	private RouteDAO pendingRoutes;
+
+	private List<Consumer<DataChanges>> listeners = new ArrayList<>();
+	//Created with the watcher so stop() can close it even if run() has not started yet
+	private final WatchService watchService;
+	private volatile boolean running = true;
+
+	/**
+	 * Creates a watcher for DAOs that have already been loaded from the given files
+	 * @param aircraftFile the file aircraftDAO was loaded from
+	 * @param crewFile the file crewDAO was loaded from
+	 * @param routeFile the file routeDAO was loaded from
+	 * @param aircraftDAO the live aircraft DAO to keep up to date
+	 * @param crewDAO the live crew DAO to keep up to date
+	 * @param routeDAO the live route DAO to keep up to date
+	 * @throws DataLoadingException if any of the files cannot be read or their directories cannot be watched
+	 */
+	public DataFileWatcher(Path aircraftFile, Path crewFile, Path routeFile, AircraftDAO aircraftDAO, CrewDAO crewDAO, RouteDAO routeDAO) throws DataLoadingException {
+		this.aircraftFile = aircraftFile.toAbsolutePath().normalize();
+		this.crewFile = crewFile.toAbsolutePath().normalize();
+		this.routeFile = routeFile.toAbsolutePath().normalize();
+		this.aircraftDAO = aircraftDAO;
+		this.crewDAO = crewDAO;
+		this.routeDAO = routeDAO;
+
+		lastAircraft.loadAircraftData(this.aircraftFile);
+		lastCrew.loadCrewData(this.crewFile);
+		lastRoutes.loadRouteData(this.routeFile);
+
+		try {
+			watchService = FileSystems.getDefault().newWatchService();
+			List<Path> directories = new ArrayList<>();
+			for(Path file : new Path[] {this.aircraftFile, this.crewFile, this.routeFile}) {
+				if(!directories.contains(file.getParent())) {
+					directories.add(file.getParent());
+					file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+				}
+			}
+		}
+		catch(IOException e) {
+			throw new DataLoadingException(e);
+		}
+	}
+
+	/**
+	 * Registers a listener to be told about every set of changes applied
+	 * @param listener called on the thread applying the changes, after the live DAOs have been updated
+	 */
+	public void addListener(Consumer<DataChanges> listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Watches the directories holding the data files until stop() is called, reading any file that changes.
+	 * The files read are only queued; the live DAOs are left alone until applyPending() is called.
+	 * Returns straight away if stop() has already been called
+	 */
+	@Override
+	public void run() {
+		try {
+			while(running) {
+				WatchKey key = watchService.take();
+				Path directory = (Path) key.watchable();
+				for(WatchEvent<?> event : key.pollEvents()) {
+					if(event.kind() == StandardWatchEventKinds.OVERFLOW) {
+						continue;
+					}
+					Path changed = directory.resolve((Path) event.context());
+					try {
+						read(changed);
+					}
+					catch(DataLoadingException e) {
+						//Editors often write files in several steps; the next event will pick up the finished file
+						System.err.println("Could not reload " + changed + ": " + e.getCause());
+					}
+				}
+				key.reset();
+			}
+		}
+		catch(InterruptedException | ClosedWatchServiceException e) {
+			//stop() was called
+		}
+	}
+
+	/**
+	 * Stops watching for changes; run() returns once it sees the watch service has been closed
+	 */
+	public void stop() {
+		running = false;
+		try {
+			watchService.close();
+		}
+		catch(IOException e) {
+			System.err.println(e);
+		}
+	}
+
+	/**
+	 * Re-reads a data file and applies it, with anything else queued, straight away on the calling thread.
+	 * Like applyPending(), it must only be called while nothing else is using the live DAOs
+	 * @param file the file that has changed; files other than the three being watched are ignored
+	 * @return the changes applied, empty if nothing watched has changed
+	 * @throws DataLoadingException if the file cannot be read, in which case nothing is changed
+	 */
+	public DataChanges reload(Path file) throws DataLoadingException {
+		read(file);
+		return applyPending();
+	}
+
+	/**
+	 * Checks whether any changed files have been read but not yet applied
+	 * @return true if applyPending() has something to apply
+	 */
+	public synchronized boolean hasPendingChanges() {
+		return pendingAircraft != null || pendingCrew != null || pendingRoutes != null;
+	}
+
+	/**
+	 * Applies the differences in every file read since the last call to the live DAOs and notifies the listeners.
+	 * This is the only point at which the live DAOs change, so it must be called by the thread that uses them,
+	 * while no schedule is being generated from them
+	 * @return the changes applied, empty if nothing has changed
+	 */
+	public DataChanges applyPending() {
+		AircraftDAO latestAircraft;
+		CrewDAO latestCrew;
+		RouteDAO latestRoutes;
+		synchronized(this) {
+			latestAircraft = pendingAircraft;
+			latestCrew = pendingCrew;
+			latestRoutes = pendingRoutes;
+			pendingAircraft = null;
+			pendingCrew = null;
+			pendingRoutes = null;
+		}
+
+		DataChanges changes = new DataChanges();
+		if(latestAircraft != null) {
+			applyAircraft(latestAircraft, changes.aircraft);
+			lastAircraft = latestAircraft;
+		}
+		if(latestCrew != null) {
+			applyCrew(latestCrew, changes.crew);
+			lastCrew = latestCrew;
+		}
+		if(latestRoutes != null) {
+			applyRoutes(latestRoutes, changes.routes);
+			lastRoutes = latestRoutes;
+		}
+
+		if(!changes.isEmpty()) {
+			for(Consumer<DataChanges> listener : listeners) {
+				listener.accept(changes);
+			}
+		}
+		return changes;
+	}
+
+	/**
+	 * Reads a data file into a new DAO and queues it, replacing any earlier read of the same file not yet applied
+	 * @throws DataLoadingException if the file cannot be read, in which case nothing is queued
+	 */
+	private void read(Path file) throws DataLoadingException {
+		file = file.toAbsolutePath().normalize();
+		if(file.equals(aircraftFile)) {
+			AircraftDAO latest = new AircraftDAO();
+			latest.loadAircraftData(file);
+			synchronized(this) {
+				pendingAircraft = latest;
+			}
+		}
+		else if(file.equals(crewFile)) {
+			CrewDAO latest = new CrewDAO();
+			latest.loadCrewData(file);
+			synchronized(this) {
+				pendingCrew = latest;
+			}
+		}
+		else if(file.equals(routeFile)) {
+			RouteDAO latest = new RouteDAO();
+			latest.loadRouteData(file);
+			synchronized(this) {
+				pendingRoutes = latest;
+			}
+		}
+	}
+
+	private void applyAircraft(AircraftDAO latest, DataChanges.Changes<Aircraft> changes) {
+		Map<String, Aircraft> before = RecordKeys.byKey(lastAircraft.aircraft, RecordKeys::aircraftKey);
+		Map<String, Aircraft> after = RecordKeys.byKey(latest.aircraft, RecordKeys::aircraftKey);
+		Map<String, Aircraft> live = RecordKeys.byKey(aircraftDAO.aircraft, RecordKeys::aircraftKey);
+
+		for(Map.Entry<String, Aircraft> e : after.entrySet()) {
+			Aircraft old = before.get(e.getKey());
+			Aircraft a = e.getValue();
+			Aircraft target = live.get(e.getKey());
+			if(target == null) {
+				aircraftDAO.aircraft.add(a);
+				changes.inserted.add(a);
+			}
+			else if(old == null || !old.getModel().equals(a.getModel()) || !old.getTypeCode().equals(a.getTypeCode())
+					|| old.getManufacturer() != a.getManufacturer() || !old.getStartingPosition().equals(a.getStartingPosition())
+					|| old.getSeats() != a.getSeats() || old.getCabinCrewRequired() != a.getCabinCrewRequired()) {
+				target.setModel(a.getModel());
+				target.setTypeCode(a.getTypeCode());
+				target.setManufacturer(a.getManufacturer());
+				target.setStartingPosition(a.getStartingPosition());
+				target.setSeats(a.getSeats());
+				target.setCabinCrewRequired(a.getCabinCrewRequired());
+				changes.updated.add(target);
+			}
+		}
+
+		for(String key : before.keySet()) {
+			Aircraft target = live.get(key);
+			if(!after.containsKey(key) && target != null) {
+				aircraftDAO.aircraft.remove(target);
+				changes.deleted.add(target);
+			}
+		}
+	}
+
+	private void applyCrew(CrewDAO latest, DataChanges.Changes<Crew> changes) {
+		Map<String, Crew> before = RecordKeys.byKey(lastCrew.crewList, RecordKeys::crewKey);
+		Map<String, Crew> after = RecordKeys.byKey(latest.crewList, RecordKeys::crewKey);
+		Map<String, Crew> live = RecordKeys.byKey(crewDAO.crewList, RecordKeys::crewKey);
+
+		for(Map.Entry<String, Crew> e : after.entrySet()) {
+			Crew old = before.get(e.getKey());
+			Crew c = e.getValue();
+			Crew target = live.get(e.getKey());
+			if(target == null) {
+				crewDAO.crewList.add(c);
+				if(c instanceof Pilot) {
+					crewDAO.pilotList.add((Pilot) c);
+				}
+				else {
+					crewDAO.ccList.add((CabinCrew) c);
+				}
+				changes.inserted.add(c);
+			}
+			else if(old == null || !old.getHomeBase().equals(c.getHomeBase()) || !old.getTypeRatings().equals(c.getTypeRatings())
+					|| (c instanceof Pilot && ((Pilot) old).getRank() != ((Pilot) c).getRank())) {
+				target.setHomeBase(c.getHomeBase());
+				for(String type : new ArrayList<>(target.getTypeRatings())) {
+					target.removeQualifiedFor(type);
+				}
+				for(String type : c.getTypeRatings()) {
+					target.setQualifiedFor(type);
+				}
+				if(c instanceof Pilot) {
+					((Pilot) target).setRank(((Pilot) c).getRank());
+				}
+				changes.updated.add(target);
+			}
+		}
+
+		for(String key : before.keySet()) {
+			Crew target = live.get(key);
+			if(!after.containsKey(key) && target != null) {
+				crewDAO.crewList.remove(target);
+				crewDAO.pilotList.remove(target);
+				crewDAO.ccList.remove(target);
+				changes.deleted.add(target);
+			}
+		}
+	}
+
+	private void applyRoutes(RouteDAO latest, DataChanges.Changes<Route> changes) {
+		Map<String, Route> before = RecordKeys.byKey(lastRoutes.routeList, RecordKeys::routeKey);
+		Map<String, Route> after = RecordKeys.byKey(latest.routeList, RecordKeys::routeKey);
+		Map<String, Route> live = RecordKeys.byKey(routeDAO.routeList, RecordKeys::routeKey);
+
+		for(Map.Entry<String, Route> e : after.entrySet()) {
+			Route old = before.get(e.getKey());
+			Route r = e.getValue();
+			Route target = live.get(e.getKey());
+			if(target == null) {
+				routeDAO.routeList.add(r);
+				changes.inserted.add(r);
+			}
+			else if(old == null || !old.getDepartureTime().equals(r.getDepartureTime()) || !old.getArrivalTime().equals(r.getArrivalTime())
+					|| !old.getDepartureAirport().equals(r.getDepartureAirport()) || !old.getDepartureAirportCode().equals(r.getDepartureAirportCode())
+					|| !old.getArrivalAirport().equals(r.getArrivalAirport()) || !old.getArrivalAirportCode().equals(r.getArrivalAirportCode())
+					|| !old.getDuration().equals(r.getDuration())) {
+				//Changing the live route would move flights already in a schedule, so the new one takes its place instead
+				routeDAO.routeList.set(routeDAO.routeList.indexOf(target), r);
+				changes.updated.add(r);
+				changes.replaced.add(target);
+			}
+		}
+
+		for(String key : before.keySet()) {
+			Route target = live.get(key);
+			if(!after.containsKey(key) && target != null) {
+				routeDAO.routeList.remove(target);
+				changes.deleted.add(target);
+			}
+		}
+	}
+
+}
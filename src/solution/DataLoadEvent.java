@@ -0,0 +1,67 @@
+package solution;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event covering one call to a DAO's load method.
+ * The event's duration is the time taken to read and parse the file
+ */
+@Name("solution.DataLoad")
+@Label("Data Load")
+@Category({"Aircraft Planner", "Loading"})
+@Description("A data file read into a DAO")
+public class DataLoadEvent extends jdk.jfr.Event {
+
+	@Label("DAO")
+	String dao;
+
+	@Label("File")
+	String file;
+
+	@Label("Size")
+	@DataAmount
+	long bytes;
+
+	@Label("Records Loaded")
+	int records;
+
+	/**
+	 * Starts timing a load
+	 * @param dao the name of the DAO doing the loading
+	 * @return the started event
+	 */
+	static DataLoadEvent start(String dao) {
+		DataLoadEvent event = new DataLoadEvent();
+		event.dao = dao;
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Records the outcome of the load. The file size is only looked up while a recording is running
+	 * @param p the file that was loaded
+	 * @param records the number of records added, or -1 if the DAO does not hold its records in memory
+	 */
+	void finish(Path p, int records) {
+		end();
+		if(shouldCommit()) {
+			file = String.valueOf(p);
+			this.records = records;
+			try {
+				bytes = Files.size(p);
+			}
+			catch(IOException e) {
+				bytes = -1;
+			}
+			commit();
+		}
+	}
+
+}
@@ -0,0 +1,293 @@
+package solution;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.json.JSONObject;
+
+import baseclasses.Aircraft;
+import baseclasses.CabinCrew;
+import baseclasses.Crew;
+import baseclasses.DataLoadingException;
+import baseclasses.Pilot;
+import baseclasses.Route;
+
+/**
+ * The DataSetGenerator writes a larger copy of a data set for load testing.
+ * Every record in the base data is copied "scale" times, so home bases, type ratings, fleet mix
+ * and the pairing of outbound and return routes keep the same distribution as the real data.
+ * Tail codes and crew names are made unique, as aircraft and crew are told apart by them, and starting positions
+ * and departure times are varied with a seeded Random, so the same seed always gives the same files
+ */
+public class DataSetGenerator {
+
+	//Copies of a route get flight numbers this far apart, which is above any real flight number
+	private static final int FLIGHT_NUMBER_STRIDE = 10000;
+
+	//Departure times of copied rotations are moved by up to this many minutes either way
+	private static final int MAX_TIME_SHIFT = 90;
+
+	private AircraftDAO aircraft = new AircraftDAO();
+	private CrewDAO crew = new CrewDAO();
+	private RouteDAO routes = new RouteDAO();
+	private Path basePassengers;
+	private int scale;
+	private long seed;
+
+	/**
+	 * Loads the base data set to copy
+	 * @param baseDir the directory holding aircraft.csv, crew.json, routes.xml and passengernumbers.db
+	 * @param scale how many copies of each record to write, e.g. 10, 100 or 1000
+	 * @param seed the seed for the random variations
+	 * @throws DataLoadingException if the base data cannot be loaded
+	 */
+	public DataSetGenerator(Path baseDir, int scale, long seed) throws DataLoadingException {
+		aircraft.loadAircraftData(baseDir.resolve("aircraft.csv"));
+		crew.loadCrewData(baseDir.resolve("crew.json"));
+		routes.loadRouteData(baseDir.resolve("routes.xml"));
+		basePassengers = baseDir.resolve("passengernumbers.db");
+		this.scale = scale;
+		this.seed = seed;
+	}
+
+	/**
+	 * Writes all four files into the output directory, replacing any already there
+	 * @param outDir the directory to write to; created if it does not exist
+	 * @throws IOException if a text file cannot be written
+	 * @throws SQLException if the passenger numbers database cannot be read or written
+	 */
+	public void generate(Path outDir) throws IOException, SQLException {
+		Files.createDirectories(outDir);
+		writeAircraft(outDir.resolve("aircraft.csv"), new Random(seed));
+		writeCrew(outDir.resolve("crew.json"));
+		writeRoutes(outDir.resolve("routes.xml"));
+		writePassengerNumbers(outDir.resolve("passengernumbers.db"), new Random(seed + 2));
+	}
+
+	/**
+	 * Turns a sequence number into a four letter registration, e.g. 0 is G-AAAA and 27 is G-AABB
+	 */
+	private static String tailCode(int n) {
+		char[] letters = new char[4];
+		for(int i = 3; i >= 0; i--) {
+			letters[i] = (char) ('A' + n % 26);
+			n /= 26;
+		}
+		return "G-" + new String(letters);
+	}
+
+	private void writeAircraft(Path p, Random random) throws IOException {
+		List<Aircraft> base = aircraft.getAllAircraft();
+		try(BufferedWriter out = Files.newBufferedWriter(p)) {
+			out.write("Tailcode,Model,TypeCode,Manufacturer,StartingPosition,Seats,CabinCrewRequired");
+			out.newLine();
+			int n = 0;
+			for(int copy = 0; copy < scale; copy++) {
+				for(Aircraft a : base) {
+					//Take the starting position from another aircraft so the spread of bases is kept but mixed up
+					String start = base.get(random.nextInt(base.size())).getStartingPosition();
+					String manufacturer = a.getManufacturer().name();
+					manufacturer = manufacturer.charAt(0) + manufacturer.substring(1).toLowerCase();
+					out.write(tailCode(n++) + "," + a.getModel() + "," + a.getTypeCode() + "," + manufacturer + ","
+							+ start + "," + a.getSeats() + "," + a.getCabinCrewRequired());
+					out.newLine();
+				}
+			}
+		}
+	}
+
+	private void writeCrew(Path p) throws IOException {
+		//Across pilots and cabin crew, as the exports name crew without their role
+		Set<String> names = new HashSet<>();
+
+		try(BufferedWriter out = Files.newBufferedWriter(p)) {
+			out.write("{");
+			out.newLine();
+			out.write("  \"pilots\": [");
+			boolean first = true;
+			for(int copy = 0; copy < scale; copy++) {
+				for(Pilot pilot : crew.getAllPilots()) {
+					first = writeCrewMember(out, pilot, "\"rank\": \"" + pilot.getRank().name() + "\", ", copy, names, first);
+				}
+			}
+			out.newLine();
+			out.write("  ],");
+			out.newLine();
+			out.write("  \"cabincrew\": [");
+			first = true;
+			for(int copy = 0; copy < scale; copy++) {
+				for(CabinCrew cc : crew.getAllCabinCrew()) {
+					first = writeCrewMember(out, cc, "", copy, names, first);
+				}
+			}
+			out.newLine();
+			out.write("  ]");
+			out.newLine();
+			out.write("}");
+			out.newLine();
+		}
+	}
+
+	/**
+	 * Writes one crew member with the base record's home base and type ratings.
+	 * The first copy keeps the base record's name and later copies add the copy number to the surname, e.g. "Smith 2",
+	 * stepping on by the scale, past the copy numbers, if the base data already has that name
+	 */
+	private boolean writeCrewMember(BufferedWriter out, Crew c, String rank, int copy, Set<String> names, boolean first) throws IOException {
+		if(!first) {
+			out.write(",");
+		}
+		out.newLine();
+		StringBuilder ratings = new StringBuilder();
+		for(String type : c.getTypeRatings()) {
+			ratings.append(ratings.length() == 0 ? "" : ", ").append(JSONObject.quote(type));
+		}
+		int n = copy + 1;
+		String surname = copy == 0 ? c.getSurname() : c.getSurname() + " " + n;
+		while(!names.add(c.getForename() + " " + surname)) {
+			n += scale;
+			surname = c.getSurname() + " " + n;
+		}
+		out.write("    {\"forename\": " + JSONObject.quote(c.getForename())
+				+ ", \"surname\": " + JSONObject.quote(surname)
+				+ ", " + rank + "\"home_airport\": " + JSONObject.quote(c.getHomeBase())
+				+ ", \"type_ratings\": [" + ratings + "]}");
+		return false;
+	}
+
+	/**
+	 * Returns the number of minutes the given copy of a route is moved by, in steps of five minutes.
+	 * Outbound legs have even flight numbers and their return legs the next odd one, so both get the same shift and stay a pair.
+	 * If the shift would move either leg's departure across midnight, changing the day it flies, neither leg is moved
+	 * @param pairDepartures the departure times of every route, listed under its flight number / 2
+	 */
+	private int timeShift(int flightNumber, int copy, Map<Integer, List<LocalTime>> pairDepartures) {
+		if(copy == 0) {
+			return 0;
+		}
+		Random random = new Random(seed ^ ((flightNumber / 2) * 1000003L + copy));
+		int shift = (random.nextInt(2 * MAX_TIME_SHIFT / 5 + 1) - MAX_TIME_SHIFT / 5) * 5;
+		for(LocalTime departure : pairDepartures.get(flightNumber / 2)) {
+			LocalTime shifted = departure.plusMinutes(shift);
+			if(shift > 0 ? shifted.isBefore(departure) : shifted.isAfter(departure)) {
+				return 0;
+			}
+		}
+		return shift;
+	}
+
+	private void writeRoutes(Path p) throws IOException {
+		Map<Integer, List<LocalTime>> pairDepartures = new HashMap<>();
+		for(Route r : routes.getAllRoutes()) {
+			pairDepartures.computeIfAbsent(r.getFlightNumber() / 2, k -> new ArrayList<>()).add(r.getDepartureTime());
+		}
+
+		try(BufferedWriter out = Files.newBufferedWriter(p)) {
+			out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>");
+			out.newLine();
+			out.write("<Routes>");
+			out.newLine();
+			for(int copy = 0; copy < scale; copy++) {
+				for(Route r : routes.getAllRoutes()) {
+					int shift = timeShift(r.getFlightNumber(), copy, pairDepartures);
+					LocalTime departure = r.getDepartureTime().plusMinutes(shift);
+					LocalTime arrival = r.getArrivalTime().plusMinutes(shift);
+
+					out.write("    <Route>");
+					out.newLine();
+					writeElement(out, "FlightNumber", String.valueOf(r.getFlightNumber() + copy * FLIGHT_NUMBER_STRIDE));
+					writeElement(out, "DayOfWeek", r.getDayOfWeek());
+					writeElement(out, "DepartureTime", departure.toString());
+					writeElement(out, "DepartureAirport", r.getDepartureAirport());
+					writeElement(out, "DepartureAirportIATACode", r.getDepartureAirportCode());
+					writeElement(out, "ArrivalTime", arrival.toString());
+					writeElement(out, "ArrivalAirport", r.getArrivalAirport());
+					writeElement(out, "ArrivalAirportIATACode", r.getArrivalAirportCode());
+					writeElement(out, "Duration", r.getDuration().toString());
+					out.write("    </Route>");
+					out.newLine();
+				}
+			}
+			out.write("</Routes>");
+			out.newLine();
+		}
+	}
+
+	private static void writeElement(BufferedWriter out, String name, String value) throws IOException {
+		String escaped = value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+		out.write("        <" + name + ">" + escaped + "</" + name + ">");
+		out.newLine();
+	}
+
+	/**
+	 * Copies every forecast once per copy of its route, varying the load by up to 15% either way
+	 */
+	private void writePassengerNumbers(Path p, Random random) throws IOException, SQLException {
+		Files.deleteIfExists(p);
+		try(Connection in = DriverManager.getConnection("jdbc:sqlite:" + basePassengers);
+				Connection out = DriverManager.getConnection("jdbc:sqlite:" + p)) {
+			Statement create = out.createStatement();
+			create.executeUpdate("CREATE TABLE \"PassengerNumbers\" (\"Date\" TEXT, \"FlightNumber\" INTEGER, \"LoadEstimate\" INTEGER, PRIMARY KEY(\"FlightNumber\",\"Date\"));");
+
+			List<String> dates = new ArrayList<>();
+			List<Integer> flightNumbers = new ArrayList<>();
+			List<Integer> loads = new ArrayList<>();
+			ResultSet rs = in.createStatement().executeQuery("SELECT Date, FlightNumber, LoadEstimate FROM PassengerNumbers;");
+			while(rs.next()) {
+				dates.add(rs.getString(1));
+				flightNumbers.add(rs.getInt(2));
+				loads.add(rs.getInt(3));
+			}
+
+			out.setAutoCommit(false);
+			PreparedStatement insert = out.prepareStatement("INSERT INTO PassengerNumbers VALUES (?, ?, ?);");
+			for(int copy = 0; copy < scale; copy++) {
+				for(int i = 0; i < dates.size(); i++) {
+					int load = copy == 0 ? loads.get(i) : (int) Math.round(loads.get(i) * (0.85 + random.nextDouble() * 0.3));
+					insert.setString(1, dates.get(i));
+					insert.setInt(2, flightNumbers.get(i) + copy * FLIGHT_NUMBER_STRIDE);
+					insert.setInt(3, load);
+					insert.addBatch();
+				}
+				insert.executeBatch();
+			}
+			out.commit();
+		}
+	}
+
+	/**
+	 * Generates a scaled data set from the command line
+	 * @param args the base data directory, the output directory, the scale, and optionally the seed, e.g. "./data ./data/x100 100 42"
+	 */
+	public static void main(String[] args) {
+		if(args.length < 3) {
+			System.err.println("Usage: DataSetGenerator <base data dir> <output dir> <scale> [seed]");
+			return;
+		}
+		try {
+			long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+			new DataSetGenerator(Paths.get(args[0]), Integer.parseInt(args[2]), seed).generate(Paths.get(args[1]));
+		}
+		catch(DataLoadingException | IOException | SQLException e) {
+			System.err.println("Error generating data set");
+			e.printStackTrace();
+		}
+	}
+
+}
@@ -0,0 +1,103 @@
+package solution;
+import java.time.LocalDateTime;
+
+import baseclasses.Aircraft;
+import baseclasses.Crew;
+import baseclasses.FlightInfo;
+
+/**
+ * A Disruption describes something that has gone wrong with an existing schedule:
+ * an aircraft out of service for a period, a crew member who is no longer available, or a cancelled route.
+ * It is passed to Scheduler.repairSchedule() to work out which flights need re-allocating
+ */
+public class Disruption {
+
+	public enum Type {
+		AIRCRAFT_UNAVAILABLE, CREW_REMOVED, ROUTE_CANCELLED
+	}
+
+	private Type type;
+	private Aircraft aircraft;
+	private Crew crew;
+	private int flightNumber;
+	private LocalDateTime from;
+	private LocalDateTime to;
+
+	private Disruption(Type type) {
+		this.type = type;
+	}
+
+	/**
+	 * Creates a disruption for an aircraft that cannot fly between two times, e.g. because it has gone tech
+	 * @param aircraft the aircraft that is unavailable
+	 * @param from the start of the period it is unavailable
+	 * @param to the end of the period it is unavailable
+	 * @return the disruption
+	 */
+	public static Disruption aircraftUnavailable(Aircraft aircraft, LocalDateTime from, LocalDateTime to) {
+		Disruption d = new Disruption(Type.AIRCRAFT_UNAVAILABLE);
+		d.aircraft = aircraft;
+		d.from = from;
+		d.to = to;
+		return d;
+	}
+
+	/**
+	 * Creates a disruption for a pilot or cabin crew member who can no longer fly any of their allocated flights
+	 * @param crew the crew member to remove
+	 * @return the disruption
+	 */
+	public static Disruption crewRemoved(Crew crew) {
+		Disruption d = new Disruption(Type.CREW_REMOVED);
+		d.crew = crew;
+		return d;
+	}
+
+	/**
+	 * Creates a disruption for a route that will no longer be flown
+	 * @param flightNumber the flight number of the cancelled route
+	 * @return the disruption
+	 */
+	public static Disruption routeCancelled(int flightNumber) {
+		Disruption d = new Disruption(Type.ROUTE_CANCELLED);
+		d.flightNumber = flightNumber;
+		return d;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public Aircraft getAircraft() {
+		return aircraft;
+	}
+
+	public Crew getCrew() {
+		return crew;
+	}
+
+	public int getFlightNumber() {
+		return flightNumber;
+	}
+
+	/**
+	 * Returns true if the given flight cannot be flown by the given aircraft because of this disruption
+	 * @param a the aircraft to check
+	 * @param f the flight to check
+	 * @return true if the aircraft is the disrupted one and the flight overlaps its unavailable period
+	 */
+	public boolean blocks(Aircraft a, FlightInfo f) {
+		return type == Type.AIRCRAFT_UNAVAILABLE && a == aircraft
+				&& f.getDepartureDateTime().isBefore(to) && f.getLandingDateTime().isAfter(from);
+	}
+
+	/**
+	 * Returns true if the given crew member cannot fly because of this disruption
+	 * @param c the crew member to check
+	 * @return true if the crew member is the one removed
+	 */
+	public boolean blocks(Crew c) {
+		return type == Type.CREW_REMOVED && c == crew;
+	}
+
+}
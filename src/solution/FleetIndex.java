@@ -0,0 +1,70 @@
+package solution;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import baseclasses.Aircraft;
+
+/**
+ * The FleetIndex keeps the fleet sorted by number of seats, so the aircraft that best fit a passenger forecast
+ * can be tried first: the smallest with enough seats, then larger ones, then those too small starting with the largest.
+ * Each order only depends on where the forecast falls among the fleet's seat counts, so it is built once per seat class
+ */
+public class FleetIndex {
+
+	private List<Aircraft> fleet;
+	private List<Aircraft> bySeats;
+	private Map<Integer, List<Aircraft>> orders = new HashMap<>();
+
+	/**
+	 * Indexes a fleet
+	 * @param aircraft the aircraft to index, which must not change while the index is in use
+	 */
+	public FleetIndex(List<Aircraft> aircraft) {
+		fleet = aircraft;
+		bySeats = new ArrayList<>(aircraft);
+		bySeats.sort(Comparator.comparingInt(Aircraft::getSeats));
+	}
+
+	/**
+	 * Returns the fleet in the order it should be tried for a flight
+	 * @param passengers the forecast number of passengers, or -1 if there is no forecast
+	 * @return the smallest aircraft with enough seats first, then larger ones, then the rest from largest to smallest;
+	 * or the fleet in its original order if there is no forecast
+	 */
+	public List<Aircraft> inSizeOrder(int passengers) {
+		if(passengers < 0) {
+			return fleet;
+		}
+		return orders.computeIfAbsent(firstAdequate(passengers), first -> {
+			List<Aircraft> order = new ArrayList<>(bySeats.subList(first, bySeats.size()));
+			for(int i = first - 1; i >= 0; i--) {
+				order.add(bySeats.get(i));
+			}
+			return Collections.unmodifiableList(order);
+		});
+	}
+
+	/**
+	 * Binary searches for the first aircraft with at least the given number of seats
+	 * @return its index in bySeats, or the size of the fleet if none are big enough
+	 */
+	private int firstAdequate(int passengers) {
+		int low = 0;
+		int high = bySeats.size();
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(bySeats.get(mid).getSeats() < passengers) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+}
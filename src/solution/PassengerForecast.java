@@ -0,0 +1,178 @@
+package solution;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import baseclasses.DataLoadingException;
+import baseclasses.FlightInfo;
+import baseclasses.IPassengerNumbersDAO;
+import baseclasses.IRouteDAO;
+import baseclasses.Route;
+import baseclasses.Schedule;
+
+/**
+ * A PassengerForecast holds the passenger numbers for a date range in memory, fetched in one pass,
+ * so the scheduler and scoring can look up every flight without going back to the database.
+ * It is read-only once built, so it can be shared between threads
+ */
+public class PassengerForecast implements IPassengerNumbersDAO {
+
+	private Map<Long, Integer> loads = new HashMap<>();
+
+	private PassengerForecast() {
+	}
+
+	/**
+	 * Fetches every forecast between two dates from a PassengerNumbersDAO's database with a single query
+	 * @param dao a PassengerNumbersDAO that has been loaded
+	 * @param start the first date to fetch, or null to start from the earliest
+	 * @param end the last date to fetch, or null to go up to the latest
+	 * @throws DataLoadingException if the database cannot be read
+	 */
+	public PassengerForecast(PassengerNumbersDAO dao, LocalDate start, LocalDate end) throws DataLoadingException {
+		if(dao.path == null) {
+			throw new DataLoadingException(new IllegalStateException("No passenger numbers have been loaded"));
+		}
+		String sql = "SELECT FlightNumber, Date, LoadEstimate FROM PassengerNumbers WHERE Date >= ? AND Date <= ?;";
+		try(Connection conn = DriverManager.getConnection("jdbc:sqlite:" + dao.path)) {
+			PreparedStatement s = conn.prepareStatement(sql);
+			//Dates are stored as ISO text, so comparing them as strings compares them as dates
+			s.setString(1, start == null ? "" : start.toString());
+			s.setString(2, end == null ? "9999-12-31" : end.toString());
+			ResultSet rs = s.executeQuery();
+			while(rs.next()) {
+				loads.put(key(rs.getInt(1), LocalDate.parse(rs.getString(2))), rs.getInt(3));
+			}
+		}
+		catch(SQLException e) {
+			throw new DataLoadingException(e);
+		}
+	}
+
+	/**
+	 * Fetches the forecast for every flight in a schedule. A PassengerNumbersDAO is read with one query over the
+	 * schedule's dates; any other source, or a database that cannot be read that way, is asked once per flight
+	 * @param dao where to get the passenger numbers from; returned as it is if it is already a PassengerForecast
+	 * @param schedule the schedule whose flights need forecasts
+	 * @return the forecasts for the schedule
+	 */
+	public static PassengerForecast forSchedule(IPassengerNumbersDAO dao, Schedule schedule) {
+		if(dao instanceof PassengerForecast) {
+			return (PassengerForecast) dao;
+		}
+		if(dao instanceof PassengerNumbersDAO) {
+			try {
+				//A day either side so the other leg of a rotation crossing midnight is included
+				return new PassengerForecast((PassengerNumbersDAO) dao, schedule.getStartDate().minusDays(1), schedule.getEndDate().plusDays(1));
+			}
+			catch(DataLoadingException e) {
+				System.err.println("Could not prefetch passenger numbers, looking them up per flight: " + e.getCause());
+			}
+		}
+
+		PassengerForecast forecast = new PassengerForecast();
+		forecast.fetch(dao, schedule.getRemainingAllocations());
+		forecast.fetch(dao, schedule.getCompletedAllocations());
+		return forecast;
+	}
+
+	private void fetch(IPassengerNumbersDAO dao, List<FlightInfo> flights) {
+		for(FlightInfo f : flights) {
+			LocalDate date = f.getDepartureDateTime().toLocalDate();
+			int passengers = dao.getPassengerNumbersFor(f.getFlight().getFlightNumber(), date);
+			if(passengers >= 0) {
+				loads.put(key(f.getFlight().getFlightNumber(), date), passengers);
+			}
+		}
+	}
+
+	/**
+	 * Returns the forecast for a flight on a date
+	 * @param flightNumber the flight number of the flight to check for
+	 * @param date the date of the flight to check for
+	 * @return the predicted number of passengers, or -1 if there is no forecast
+	 */
+	@Override
+	public int getPassengerNumbersFor(int flightNumber, LocalDate date) {
+		return loads.getOrDefault(key(flightNumber, date), -1);
+	}
+
+	/**
+	 * Pairs each route with the other leg of its rotation. The data numbers an outbound leg with an even flight number
+	 * and its return leg with the next odd one, so the other leg of flight n is n ^ 1, but only if that route exists
+	 * and flies back between the same two airports
+	 * @param routes the loaded routes
+	 * @return the other leg of each flight number that has one
+	 */
+	public static Map<Integer, Route> otherLegs(IRouteDAO routes) {
+		Map<Integer, Route> byNumber = new HashMap<>();
+		for(Route r : routes.getAllRoutes()) {
+			byNumber.putIfAbsent(r.getFlightNumber(), r);
+		}
+		Map<Integer, Route> otherLegs = new HashMap<>();
+		for(Route r : byNumber.values()) {
+			Route other = byNumber.get(r.getFlightNumber() ^ 1);
+			if(other != null && other.getDepartureAirportCode().equals(r.getArrivalAirportCode())
+					&& other.getArrivalAirportCode().equals(r.getDepartureAirportCode())) {
+				otherLegs.put(r.getFlightNumber(), other);
+			}
+		}
+		return otherLegs;
+	}
+
+	/**
+	 * Returns the number of passengers an aircraft flying this flight's rotation needs seats for: the larger of the
+	 * forecasts for this leg and the other leg of the pair, which flies the same day or, if this leg is late, the day either side
+	 * @param f the flight to check
+	 * @param otherLeg the other leg of the rotation, from otherLegs(), or null if it has none
+	 * @return the largest forecast for the rotation, or -1 if neither leg has one
+	 */
+	public int getRotationDemand(FlightInfo f, Route otherLeg) {
+		int flightNumber = f.getFlight().getFlightNumber();
+		LocalDate date = f.getDepartureDateTime().toLocalDate();
+		int demand = getPassengerNumbersFor(flightNumber, date);
+		if(otherLeg == null) {
+			return demand;
+		}
+		int other = getPassengerNumbersFor(otherLeg.getFlightNumber(), date);
+		if(other < 0) {
+			other = getPassengerNumbersFor(otherLeg.getFlightNumber(), flightNumber % 2 == 0 ? date.plusDays(1) : date.minusDays(1));
+		}
+		return Math.max(demand, other);
+	}
+
+	@Override
+	public int getNumberOfEntries() {
+		return loads.size();
+	}
+
+	/**
+	 * Not supported: a forecast is fixed when it is built, so it can be shared safely. Build a new one to pick up other data
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void loadPassengerNumbersData(Path p) throws DataLoadingException {
+		throw new UnsupportedOperationException("A PassengerForecast cannot be reloaded; build a new one from a loaded PassengerNumbersDAO");
+	}
+
+	/**
+	 * Not supported, as other threads may still be reading the forecast
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void reset() {
+		throw new UnsupportedOperationException("A PassengerForecast cannot be reset; build a new one instead");
+	}
+
+	private static long key(int flightNumber, LocalDate date) {
+		return ((long) flightNumber << 32) | (date.toEpochDay() & 0xFFFFFFFFL);
+	}
+
+}
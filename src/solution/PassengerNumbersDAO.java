@@ -67,18 +67,23 @@ public class PassengerNumbersDAO implements IPassengerNumbersDAO {
 	 * Loads the passenger numbers data from the specified SQLite database into a cache for future calls to getPassengerNumbersFor()
 	 * Multiple calls to this method are additive, but flight numbers/dates previously cached will be overwritten
 	 * The cache can be reset by calling reset() 
+	 * Any connection opened by an earlier load is closed first, as getPassengerNumbersFor() loads again on every call
 	 * @param p The path of the SQLite database to load data from
 	 * @throws DataLoadingException If there is a problem loading from the database
 	 */
 	@Override
 	public void loadPassengerNumbersData(Path p) throws DataLoadingException {
 		path = p;
+		DataLoadEvent event = DataLoadEvent.start("PassengerNumbersDAO");
 		try {
+			close();
 			conn = DriverManager.getConnection("jdbc:sqlite:" + p);
 			
 			Statement s = conn.createStatement();
 			rs = s.executeQuery("SELECT * FROM PassengerNumbers;");
 			
+			//Rows are read lazily from the result set, so there is no record count to report
+			event.finish(p, -1);
 		}
 		catch(SQLException se) {
 			throw new DataLoadingException(se);
@@ -87,11 +92,25 @@ public class PassengerNumbersDAO implements IPassengerNumbersDAO {
 	}
 
 	/**
-	 * Removes all data from the DAO, ready to start again if needed
+	 * Removes all data from the DAO, ready to start again if needed, and closes its connection to the database
 	 */
 	@Override
 	public void reset() {
 		path = null;
+		try {
+			close();
+		}
+		catch(SQLException e) {
+			System.err.println(e);
+		}
+	}
+
+	private void close() throws SQLException {
+		if(conn != null) {
+			conn.close();
+			conn = null;
+			rs = null;
+		}
 	}
 
 }
@@ -0,0 +1,228 @@
+package solution;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import baseclasses.IRouteDAO;
+import baseclasses.Route;
+
+/**
+ * The PositioningPathCache turns the routes flown over a horizon into a time-dependent graph of legs
+ * and answers "can someone at airport A be at airport B by time T, and on which legs?"
+ * It is for crew, who can travel as passengers on other flights; an aircraft cannot ride along on another flight.
+ * Every change of flight, including onto the flight being positioned for, allows MIN_CONNECTION to get between them.
+ * Earliest-arrival trees are computed with Dijkstra once per origin airport and departure slot, then reused
+ */
+public class PositioningPathCache {
+
+	/**
+	 * The shortest time allowed between landing on one leg and departing on the next
+	 */
+	public static final Duration MIN_CONNECTION = Duration.ofMinutes(45);
+
+	/**
+	 * A single dated leg of the route network
+	 */
+	public static class Leg {
+		private final Route route;
+		private final LocalDateTime departure;
+		private final LocalDateTime landing;
+
+		Leg(Route route, LocalDate date) {
+			this.route = route;
+			this.departure = LocalDateTime.of(date, route.getDepartureTime());
+			this.landing = departure.plus(route.getDuration());
+		}
+
+		public Route getRoute() {
+			return route;
+		}
+
+		public LocalDateTime getDepartureDateTime() {
+			return departure;
+		}
+
+		public LocalDateTime getLandingDateTime() {
+			return landing;
+		}
+	}
+
+	/**
+	 * The earliest arrival at every reachable airport, and the leg used to get there, from one origin and slot
+	 */
+	private static class ArrivalTree {
+		Map<String, LocalDateTime> arrivals = new HashMap<>();
+		Map<String, Leg> lastLegs = new HashMap<>();
+	}
+
+	/**
+	 * An arrival waiting in the Dijkstra queue; it is skipped when polled if a better one has since been found
+	 */
+	private static class QueuedArrival {
+		final String airport;
+		final LocalDateTime arrival;
+
+		QueuedArrival(String airport, LocalDateTime arrival) {
+			this.airport = airport;
+			this.arrival = arrival;
+		}
+	}
+
+	//Legs leaving each airport, sorted by departure time
+	Map<String, List<Leg>> departures = new HashMap<>();
+
+	//Cached trees per "airport|slot index" key
+	Map<String, ArrivalTree> trees = new HashMap<>();
+
+	/**
+	 * Builds the leg graph for every route flown between the two dates
+	 * @param routeDAO the loaded routes
+	 * @param startDate the first day of the horizon
+	 * @param endDate the last day of the horizon
+	 */
+	public PositioningPathCache(IRouteDAO routeDAO, LocalDate startDate, LocalDate endDate) {
+		for(LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+			for(Route r : routeDAO.findRoutesbyDate(date)) {
+				departures.computeIfAbsent(r.getDepartureAirportCode(), k -> new ArrayList<>()).add(new Leg(r, date));
+			}
+		}
+		for(List<Leg> legs : departures.values()) {
+			legs.sort((a, b) -> a.getDepartureDateTime().compareTo(b.getDepartureDateTime()));
+		}
+	}
+
+	/**
+	 * Returns the index of the first leg in the list departing at or after the given time
+	 */
+	private static int firstDepartingFrom(List<Leg> legs, LocalDateTime time) {
+		int low = 0;
+		int high = legs.size();
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(legs.get(mid).getDepartureDateTime().isBefore(time)) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the cached arrival tree for someone ready to leave the airport at the given time, building it if needed.
+	 * Everyone ready between two departures catches the same next leg, so one tree per departure slot is enough
+	 */
+	private ArrivalTree treeFor(String airportCode, LocalDateTime readyAt) {
+		List<Leg> legs = departures.getOrDefault(airportCode, Collections.emptyList());
+		int slot = firstDepartingFrom(legs, readyAt);
+		String key = airportCode + "|" + slot;
+
+		ArrivalTree tree = trees.get(key);
+		if(tree == null) {
+			LocalDateTime start = slot < legs.size() ? legs.get(slot).getDepartureDateTime() : readyAt;
+			tree = buildTree(airportCode, start);
+			trees.put(key, tree);
+		}
+		return tree;
+	}
+
+	/**
+	 * Time-dependent Dijkstra: a leg can be taken if it departs at least MIN_CONNECTION after the arrival at its
+	 * departure airport, or from the start time at the origin.
+	 * Improved arrivals are queued again rather than moved in the queue, and the stale entries skipped when polled
+	 */
+	private ArrivalTree buildTree(String origin, LocalDateTime start) {
+		ArrivalTree tree = new ArrivalTree();
+		tree.arrivals.put(origin, start);
+
+		PriorityQueue<QueuedArrival> queue = new PriorityQueue<>((a, b) -> a.arrival.compareTo(b.arrival));
+		queue.add(new QueuedArrival(origin, start));
+
+		while(!queue.isEmpty()) {
+			QueuedArrival queued = queue.poll();
+			if(queued.arrival.isAfter(tree.arrivals.get(queued.airport))) {
+				continue;
+			}
+			LocalDateTime readyAt = queued.airport.equals(origin) ? queued.arrival : queued.arrival.plus(MIN_CONNECTION);
+			List<Leg> legs = departures.getOrDefault(queued.airport, Collections.emptyList());
+
+			for(int i = firstDepartingFrom(legs, readyAt); i < legs.size(); i++) {
+				Leg leg = legs.get(i);
+				String next = leg.getRoute().getArrivalAirportCode();
+				LocalDateTime best = tree.arrivals.get(next);
+				if(best == null || leg.getLandingDateTime().isBefore(best)) {
+					tree.arrivals.put(next, leg.getLandingDateTime());
+					tree.lastLegs.put(next, leg);
+					queue.add(new QueuedArrival(next, leg.getLandingDateTime()));
+				}
+			}
+		}
+		return tree;
+	}
+
+	/**
+	 * Returns the earliest time something ready at one airport could land at another
+	 * @param from the three letter code of the airport it is currently at
+	 * @param readyAt the time from which it is free to travel
+	 * @param to the three letter code of the airport it needs to be at
+	 * @return the earliest arrival time, or null if the destination cannot be reached within the horizon
+	 */
+	public LocalDateTime getEarliestArrival(String from, LocalDateTime readyAt, String to) {
+		if(from.equals(to)) {
+			return readyAt;
+		}
+		return treeFor(from, readyAt).arrivals.get(to);
+	}
+
+	/**
+	 * Returns true if someone ready at one airport can get to another in time to connect onto a departure
+	 * @param from the three letter code of the airport they are currently at
+	 * @param readyAt the time from which they are free to travel
+	 * @param to the three letter code of the airport they need to be at
+	 * @param departure the departure they need to catch; if they have to travel, they must land MIN_CONNECTION before it
+	 * @return true if the destination can be reached in time
+	 */
+	public boolean canReach(String from, LocalDateTime readyAt, String to, LocalDateTime departure) {
+		if(from.equals(to)) {
+			return !readyAt.isAfter(departure);
+		}
+		LocalDateTime arrival = getEarliestArrival(from, readyAt, to);
+		return arrival != null && !arrival.plus(MIN_CONNECTION).isAfter(departure);
+	}
+
+	/**
+	 * Returns the legs of the earliest-arriving path between two airports
+	 * @param from the three letter code of the airport it is currently at
+	 * @param readyAt the time from which it is free to travel
+	 * @param to the three letter code of the airport it needs to be at
+	 * @return the legs in the order they are flown, empty if already there, or null if the destination cannot be reached
+	 */
+	public List<Leg> getPath(String from, LocalDateTime readyAt, String to) {
+		List<Leg> path = new ArrayList<>();
+		if(from.equals(to)) {
+			return path;
+		}
+
+		ArrivalTree tree = treeFor(from, readyAt);
+		if(!tree.arrivals.containsKey(to)) {
+			return null;
+		}
+
+		String airport = to;
+		while(!airport.equals(from)) {
+			Leg leg = tree.lastLegs.get(airport);
+			path.add(leg);
+			airport = leg.getRoute().getDepartureAirportCode();
+		}
+		Collections.reverse(path);
+		return path;
+	}
+
+}
@@ -0,0 +1,227 @@
+package solution;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import baseclasses.Aircraft;
+import baseclasses.CabinCrew;
+import baseclasses.Crew;
+import baseclasses.IAircraftDAO;
+import baseclasses.ICrewDAO;
+import baseclasses.IPassengerNumbersDAO;
+import baseclasses.Pilot;
+import baseclasses.Schedule;
+import baseclasses.qualitypointscalculators.AircraftCapacityCalculator;
+import baseclasses.qualitypointscalculators.InboundWithoutOutboundCalculator;
+import baseclasses.qualitypointscalculators.IndividualQualityRuleCalculator;
+import baseclasses.qualitypointscalculators.MonthlyWorkingHoursCalculator;
+import baseclasses.qualitypointscalculators.NightlyRestCalculator;
+import baseclasses.qualitypointscalculators.OutboundWithoutInboundCalculator;
+import baseclasses.qualitypointscalculators.PilotWrongSeatCalculator;
+import baseclasses.qualitypointscalculators.PositioningFlightCalculator;
+import baseclasses.qualitypointscalculators.RestAfterLandingWrongAirportCalculator;
+import baseclasses.qualitypointscalculators.RestBeforeDepartingWrongAirportCalculator;
+import baseclasses.qualitypointscalculators.ShortTurnaroundCalculator;
+import baseclasses.qualitypointscalculators.UnqualifiedCrewCalculator;
+import baseclasses.qualitypointscalculators.WeeklyRestCalculator;
+
+/**
+ * The QualityEvaluator gives the same score as QualityScoreCalculator, with the points for each rule, but works them out
+ * on a ForkJoinPool instead of one rule after another.
+ * Rules that add up points aircraft by aircraft or crew member by crew member are run once per slice of the fleet or crew,
+ * each against a DAO holding only that slice, and the slices are added back together.
+ * Rules that walk the schedule's whole list of flights are run whole, alongside the slices.
+ * The passenger numbers are fetched into a PassengerForecast first, so the capacity rule does not query the database flight by flight
+ */
+public class QualityEvaluator {
+
+	/**
+	 * How a rule can be split: by the aircraft it reads from the aircraft DAO, by the crew it reads from the crew DAO, or not at all
+	 */
+	private enum Split {
+		NONE, AIRCRAFT, CREW
+	}
+
+	private interface RuleFactory {
+		IndividualQualityRuleCalculator create(IAircraftDAO aircraft, ICrewDAO crew, IPassengerNumbersDAO passengers, Schedule s);
+	}
+
+	//In the same order as QualityScoreCalculator, so the descriptions line up
+	private static final RuleFactory[] RULES = {AircraftCapacityCalculator::new, ShortTurnaroundCalculator::new, PositioningFlightCalculator::new,
+			PilotWrongSeatCalculator::new, UnqualifiedCrewCalculator::new, NightlyRestCalculator::new, WeeklyRestCalculator::new,
+			RestBeforeDepartingWrongAirportCalculator::new, RestAfterLandingWrongAirportCalculator::new, OutboundWithoutInboundCalculator::new,
+			InboundWithoutOutboundCalculator::new, MonthlyWorkingHoursCalculator::new};
+	private static final Split[] SPLITS = {Split.NONE, Split.AIRCRAFT, Split.AIRCRAFT,
+			Split.NONE, Split.NONE, Split.CREW, Split.CREW,
+			Split.CREW, Split.CREW, Split.CREW,
+			Split.CREW, Split.CREW};
+
+	private IAircraftDAO aircraft;
+	private ICrewDAO crew;
+	private IPassengerNumbersDAO passengers;
+	private Schedule s;
+	private ForkJoinPool pool;
+
+	/**
+	 * Creates an evaluator that runs on the common ForkJoinPool
+	 * @param aircraft the loaded aircraft
+	 * @param crew the loaded crew
+	 * @param passengers the loaded passenger numbers, read into a PassengerForecast for the schedule before any rule runs
+	 * @param s the schedule to score
+	 */
+	public QualityEvaluator(IAircraftDAO aircraft, ICrewDAO crew, IPassengerNumbersDAO passengers, Schedule s) {
+		this(aircraft, crew, passengers, s, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates an evaluator that runs on the given pool
+	 * @param aircraft the loaded aircraft
+	 * @param crew the loaded crew
+	 * @param passengers the loaded passenger numbers
+	 * @param s the schedule to score
+	 * @param pool the pool to run the rules on
+	 */
+	public QualityEvaluator(IAircraftDAO aircraft, ICrewDAO crew, IPassengerNumbersDAO passengers, Schedule s, ForkJoinPool pool) {
+		this.aircraft = aircraft;
+		this.crew = crew;
+		this.passengers = passengers;
+		this.s = s;
+		this.pool = pool;
+	}
+
+	/**
+	 * Works out the points for every rule
+	 * @return the points for each rule, in the order describeQualityScore() lists them, or null if the schedule is not completed
+	 */
+	public long[] calculateRulePoints() {
+		if(!s.isCompleted()) {
+			return null;
+		}
+		return rulePoints();
+	}
+
+	/**
+	 * Adds up the points for the flights allocated so far, for following a schedule while it is still being built.
+	 * The rules are run as they are on a completed schedule, so flights still remaining add nothing
+	 * @return the total points for the completed allocations
+	 */
+	long calculateAllocatedPoints() {
+		long total = 0;
+		for(long p : rulePoints()) {
+			total += p;
+		}
+		return total;
+	}
+
+	private long[] rulePoints() {
+		//As QualityScoreCalculator does, and before any rule starts, as the rules only read the schedule
+		s.sort();
+
+		IPassengerNumbersDAO passengers = PassengerForecast.forSchedule(this.passengers, s);
+		List<AircraftDAO> aircraftSlices = aircraftSlices();
+		List<CrewDAO> crewSlices = crewSlices();
+
+		List<List<ForkJoinTask<Long>>> tasks = new ArrayList<>();
+		for(int i = 0; i < RULES.length; i++) {
+			RuleFactory rule = RULES[i];
+			List<ForkJoinTask<Long>> ruleTasks = new ArrayList<>();
+			if(SPLITS[i] == Split.AIRCRAFT) {
+				for(AircraftDAO slice : aircraftSlices) {
+					ruleTasks.add(pool.submit(() -> rule.create(slice, crew, passengers, s).calculatePoints()));
+				}
+			}
+			else if(SPLITS[i] == Split.CREW) {
+				for(CrewDAO slice : crewSlices) {
+					ruleTasks.add(pool.submit(() -> rule.create(aircraft, slice, passengers, s).calculatePoints()));
+				}
+			}
+			else {
+				ruleTasks.add(pool.submit(() -> rule.create(aircraft, crew, passengers, s).calculatePoints()));
+			}
+			tasks.add(ruleTasks);
+		}
+
+		long[] points = new long[RULES.length];
+		for(int i = 0; i < RULES.length; i++) {
+			for(ForkJoinTask<Long> task : tasks.get(i)) {
+				points[i] += task.join();
+			}
+		}
+		return points;
+	}
+
+	/**
+	 * Calculates the quality score of the schedule
+	 * @return the same score as QualityScoreCalculator.calculateQualityScore(), or -1 if the schedule is not completed
+	 */
+	public long calculateQualityScore() {
+		long[] points = calculateRulePoints();
+		if(points == null) {
+			return -1;
+		}
+		long total = 0;
+		for(long p : points) {
+			total += p;
+		}
+		return total;
+	}
+
+	/**
+	 * Describes the points for each rule
+	 * @return the same lines as QualityScoreCalculator.describeQualityScore()
+	 */
+	public String[] describeQualityScore() {
+		long[] points = calculateRulePoints();
+		if(points == null) {
+			return new String[] {"This schedule is inelligible for a quality score as it is not yet completed"};
+		}
+		String[] descriptions = new String[RULES.length];
+		for(int i = 0; i < RULES.length; i++) {
+			descriptions[i] = NumberFormat.getInstance().format(points[i]) + " " + RULES[i].create(aircraft, crew, passengers, s).getDescription();
+		}
+		return descriptions;
+	}
+
+	/**
+	 * Splits the fleet into a few slices per worker thread, so uneven slices still keep every thread busy
+	 */
+	private List<AircraftDAO> aircraftSlices() {
+		List<Aircraft> all = aircraft.getAllAircraft();
+		List<AircraftDAO> slices = new ArrayList<>();
+		int size = sliceSize(all.size());
+		for(int from = 0; from < all.size(); from += size) {
+			AircraftDAO slice = new AircraftDAO();
+			slice.aircraft.addAll(all.subList(from, Math.min(from + size, all.size())));
+			slices.add(slice);
+		}
+		return slices;
+	}
+
+	private List<CrewDAO> crewSlices() {
+		List<Crew> all = crew.getAllCrew();
+		List<CrewDAO> slices = new ArrayList<>();
+		int size = sliceSize(all.size());
+		for(int from = 0; from < all.size(); from += size) {
+			CrewDAO slice = new CrewDAO();
+			for(Crew c : all.subList(from, Math.min(from + size, all.size()))) {
+				slice.crewList.add(c);
+				if(c instanceof Pilot) {
+					slice.pilotList.add((Pilot) c);
+				}
+				else {
+					slice.ccList.add((CabinCrew) c);
+				}
+			}
+			slices.add(slice);
+		}
+		return slices;
+	}
+
+	private int sliceSize(int records) {
+		int slices = pool.getParallelism() * 4;
+		return Math.max(1, (records + slices - 1) / slices);
+	}
+
+}
@@ -0,0 +1,68 @@
+package solution;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import baseclasses.Aircraft;
+import baseclasses.Crew;
+import baseclasses.Pilot;
+import baseclasses.Route;
+
+/**
+ * RecordKeys gives aircraft, crew and routes a text key that identifies them across loads of the same data file,
+ * as the records themselves are new objects every time a file is read.
+ * The data files can repeat a key, such as a tail code listed twice, so keys are made unique by adding "#n"
+ * to the nth record with the same key, in the order the DAO holds them
+ */
+final class RecordKeys {
+
+	private RecordKeys() {
+	}
+
+	static String aircraftKey(Aircraft a) {
+		return a.getTailCode();
+	}
+
+	static String crewKey(Crew c) {
+		return (c instanceof Pilot ? "P|" : "C|") + c.getForename() + "|" + c.getSurname();
+	}
+
+	static String routeKey(Route r) {
+		return r.getFlightNumber() + "|" + r.getDayOfWeek();
+	}
+
+	/**
+	 * Keys each record, adding "#n" to the nth repeat of a key so duplicate records are matched in order
+	 * @return the records by their unique key, in the order given
+	 */
+	static <T> Map<String, T> byKey(List<? extends T> records, Function<T, String> key) {
+		Map<String, T> keyed = new LinkedHashMap<>();
+		Map<String, Integer> repeats = new HashMap<>();
+		for(T record : records) {
+			keyed.put(unique(key.apply(record), repeats), record);
+		}
+		return keyed;
+	}
+
+	/**
+	 * Gives each record the same unique key byKey() would, looked up by the record itself
+	 * @return the unique key of each record
+	 */
+	static <T> Map<T, String> keysOf(List<? extends T> records, Function<T, String> key) {
+		Map<T, String> keys = new IdentityHashMap<>();
+		Map<String, Integer> repeats = new HashMap<>();
+		for(T record : records) {
+			keys.put(record, unique(key.apply(record), repeats));
+		}
+		return keys;
+	}
+
+	private static String unique(String k, Map<String, Integer> repeats) {
+		int n = repeats.merge(k, 1, Integer::sum);
+		return n == 1 ? k : k + "#" + n;
+	}
+
+}
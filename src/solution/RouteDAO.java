@@ -117,7 +117,8 @@ public class RouteDAO implements IRouteDAO {
 	 */
 	@Override
 	public void loadRouteData(Path arg0) throws DataLoadingException {
-		
+		DataLoadEvent event = DataLoadEvent.start("RouteDAO");
+		int before = routeList.size();
 		try {
 			DocumentBuilder db = DocumentBuilderFactory.newInstance().newDocumentBuilder();
 			Document doc = db.parse(arg0.toString());
@@ -178,6 +179,7 @@ public class RouteDAO implements IRouteDAO {
 					routeList.add(route);
 				}
 			}
+			event.finish(arg0, routeList.size() - before);
 		}
 		catch(ParserConfigurationException | SAXException | IOException | NullPointerException e) {
 			throw new DataLoadingException(e);
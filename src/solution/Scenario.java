@@ -0,0 +1,91 @@
+package solution;
+import java.time.LocalDate;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import baseclasses.Aircraft;
+import baseclasses.Crew;
+
+/**
+ * A Scenario is one what-if variation to schedule with the ScenarioRunner: a date range,
+ * optionally limited to a subset of the fleet or crew, and optionally with some crew moved to a different home base.
+ * Aircraft and crew are matched against the runner's loaded data, which the scenario never changes
+ */
+public class Scenario {
+
+	private String name;
+	private LocalDate startDate;
+	private LocalDate endDate;
+	private Predicate<Aircraft> aircraftFilter = a -> true;
+	private Predicate<Crew> crewFilter = c -> true;
+	//Keyed by the record itself, as crew names can repeat
+	private Map<Crew, String> homeBases = new IdentityHashMap<>();
+
+	/**
+	 * Creates a scenario using every aircraft and crew member
+	 * @param name a name for the scenario, used to tell results apart
+	 * @param startDate the first day to schedule
+	 * @param endDate the last day to schedule
+	 */
+	public Scenario(String name, LocalDate startDate, LocalDate endDate) {
+		this.name = name;
+		this.startDate = startDate;
+		this.endDate = endDate;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public LocalDate getStartDate() {
+		return startDate;
+	}
+
+	public LocalDate getEndDate() {
+		return endDate;
+	}
+
+	/**
+	 * Limits the scenario to the aircraft accepted by a filter, e.g. to try the schedule without one type
+	 * @param aircraftFilter returns true for the aircraft to use; it is given the loaded aircraft and must not change them
+	 */
+	public void setAircraftFilter(Predicate<Aircraft> aircraftFilter) {
+		this.aircraftFilter = aircraftFilter;
+	}
+
+	/**
+	 * Limits the scenario to the crew accepted by a filter
+	 * @param crewFilter returns true for the crew to use; it is given the loaded crew and must not change them
+	 */
+	public void setCrewFilter(Predicate<Crew> crewFilter) {
+		this.crewFilter = crewFilter;
+	}
+
+	/**
+	 * Moves a crew member to a different home base for this scenario only
+	 * @param crew the crew member to move, as held by the crew DAO the ScenarioRunner was created from
+	 * @param airportCode the three-letter code of their new home base
+	 */
+	public void setHomeBase(Crew crew, String airportCode) {
+		homeBases.put(crew, airportCode);
+	}
+
+	boolean uses(Aircraft a) {
+		return aircraftFilter.test(a);
+	}
+
+	boolean uses(Crew c) {
+		return crewFilter.test(c);
+	}
+
+	/**
+	 * Returns the home base the crew member is moved to in this scenario
+	 * @param c the crew member as held by the crew DAO the runner was created from
+	 * @return the new home base, or null if they keep their own
+	 */
+	String homeBaseOf(Crew c) {
+		return homeBases.get(c);
+	}
+
+}
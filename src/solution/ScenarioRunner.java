@@ -0,0 +1,338 @@
+package solution;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import baseclasses.Aircraft;
+import baseclasses.CabinCrew;
+import baseclasses.Crew;
+import baseclasses.DataLoadingException;
+import baseclasses.IAircraftDAO;
+import baseclasses.ICrewDAO;
+import baseclasses.IPassengerNumbersDAO;
+import baseclasses.IRouteDAO;
+import baseclasses.Pilot;
+import baseclasses.QualityScoreCalculator;
+import baseclasses.Schedule;
+
+/**
+ * The ScenarioRunner schedules and scores many Scenarios at once from a single load of the data.
+ * The aircraft and crew are copied into snapshots when the runner is created and are never changed after that.
+ * The scheduler moves aircraft and crew around as it allocates them, so each run gets its own copies of the
+ * snapshot records it uses, while the routes and passenger numbers are shared between all runs
+ */
+public class ScenarioRunner {
+
+	/**
+	 * The outcome of scheduling one scenario
+	 */
+	public static class Result {
+		private Scenario scenario;
+		private AircraftDAO aircraft;
+		private CrewDAO crew;
+		private Schedule schedule;
+		private long score;
+		private long millis;
+		private List<String> bottlenecks;
+		private Throwable failure;
+
+		private Result(Scenario scenario, AircraftDAO aircraft, CrewDAO crew, Schedule schedule, long score, long millis, List<String> bottlenecks) {
+			this.scenario = scenario;
+			this.aircraft = aircraft;
+			this.crew = crew;
+			this.schedule = schedule;
+			this.score = score;
+			this.millis = millis;
+			this.bottlenecks = bottlenecks;
+		}
+
+		private Result(Scenario scenario, Throwable failure) {
+			this(scenario, null, null, null, -1, 0, Collections.emptyList());
+			this.failure = failure;
+		}
+
+		public Scenario getScenario() {
+			return scenario;
+		}
+
+		/**
+		 * Returns what the scenario threw if it failed. A failed result has no aircraft, crew or schedule, and a score of -1
+		 * @return the exception or error that stopped the run, or null if it succeeded
+		 */
+		public Throwable getFailure() {
+			return failure;
+		}
+
+		/**
+		 * Returns the run's own copies of the aircraft it scheduled, which the schedule refers to
+		 * @return the aircraft the schedule was built from
+		 */
+		public AircraftDAO getAircraft() {
+			return aircraft;
+		}
+
+		/**
+		 * Returns the run's own copies of the crew it scheduled, which the schedule refers to
+		 * @return the crew the schedule was built from
+		 */
+		public CrewDAO getCrew() {
+			return crew;
+		}
+
+		/**
+		 * Returns the schedule produced. It refers to the run's own copies of the aircraft and crew, not the loaded ones
+		 * @return the schedule produced
+		 */
+		public Schedule getSchedule() {
+			return schedule;
+		}
+
+		/**
+		 * Returns the quality score of the schedule, lower being better
+		 * @return the quality score, or -1 if some flights could not be allocated
+		 */
+		public long getScore() {
+			return score;
+		}
+
+		/**
+		 * Returns how long the scenario took to schedule and score
+		 * @return the time taken in milliseconds
+		 */
+		public long getMillis() {
+			return millis;
+		}
+
+		/**
+		 * Returns the CapacityAnalyser's bottleneck report for the scenario's aircraft and crew, taken before scheduling
+		 * @return the shortages found, empty if there were none
+		 */
+		public List<String> getBottlenecks() {
+			return bottlenecks;
+		}
+	}
+
+	private List<Aircraft> aircraft = new ArrayList<>();
+	private List<Crew> crew = new ArrayList<>();
+	//The crew records the snapshot was copied from, in the same order, which scenarios name crew to move by
+	private List<Crew> loadedCrew;
+	private IRouteDAO routeDAO;
+	private IPassengerNumbersDAO passengerNumbersDAO;
+	private ExecutorService executor;
+
+	/**
+	 * Creates a runner over already loaded data
+	 * @param aircraftDAO the loaded aircraft, copied into the snapshot
+	 * @param crewDAO the loaded crew, copied into the snapshot
+	 * @param routeDAO the loaded routes, shared by every run and so must not be changed while scenarios are running
+	 * @param passengerNumbersDAO the loaded passenger numbers. A PassengerNumbersDAO is read into a PassengerForecast once;
+	 * lookups to anything else are made one at a time, as the DAOs are not thread-safe
+	 * @param threads the most scenarios to run at once, normally the number of cores
+	 */
+	public ScenarioRunner(IAircraftDAO aircraftDAO, ICrewDAO crewDAO, IRouteDAO routeDAO, IPassengerNumbersDAO passengerNumbersDAO, int threads) {
+		for(Aircraft a : aircraftDAO.getAllAircraft()) {
+			aircraft.add(copy(a));
+		}
+		for(Crew c : crewDAO.getAllCrew()) {
+			crew.add(copy(c, c.getHomeBase()));
+		}
+		aircraft = Collections.unmodifiableList(aircraft);
+		crew = Collections.unmodifiableList(crew);
+		loadedCrew = new ArrayList<>(crewDAO.getAllCrew());
+		this.routeDAO = routeDAO;
+		this.passengerNumbersDAO = shared(passengerNumbersDAO);
+
+		ThreadFactory daemons = r -> {
+			Thread t = new Thread(r, "scenario-runner");
+			t.setDaemon(true);
+			return t;
+		};
+		executor = Executors.newFixedThreadPool(threads, daemons);
+	}
+
+	/**
+	 * Queues a scenario to be scheduled and scored
+	 * @param scenario the scenario to run
+	 * @return a future completed with the result when the run finishes
+	 */
+	public CompletableFuture<Result> submit(Scenario scenario) {
+		return CompletableFuture.supplyAsync(() -> run(scenario), executor);
+	}
+
+	/**
+	 * Runs every scenario, handing each result to the callback as soon as it finishes, and waits for them all.
+	 * A scenario that fails is handed over as a result whose getFailure() says why, and the others carry on
+	 * @param scenarios the scenarios to run
+	 * @param onResult called with each result, one at a time on the calling thread, in the order they finish
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void runAll(List<Scenario> scenarios, Consumer<Result> onResult) throws InterruptedException {
+		runAll(scenarios, onResult, (s, e) -> onResult.accept(new Result(s, e)));
+	}
+
+	/**
+	 * Runs every scenario, handing each result or failure to a callback as soon as it finishes, and waits for them all.
+	 * A scenario that fails does not stop the others
+	 * @param scenarios the scenarios to run
+	 * @param onResult called with each result, one at a time on the calling thread, in the order they finish
+	 * @param onFailure called instead of onResult, on the same thread, with a scenario that failed and what it threw
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void runAll(List<Scenario> scenarios, Consumer<Result> onResult, BiConsumer<Scenario, Throwable> onFailure) throws InterruptedException {
+		//Callbacks are queued by the workers and run here, so they are never called at the same time
+		LinkedBlockingQueue<Runnable> finished = new LinkedBlockingQueue<>();
+		for(Scenario s : scenarios) {
+			submit(s).whenComplete((r, e) -> {
+				if(e == null) {
+					finished.add(() -> onResult.accept(r));
+				}
+				else {
+					finished.add(() -> onFailure.accept(s, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
+				}
+			});
+		}
+		for(int i = 0; i < scenarios.size(); i++) {
+			finished.take().run();
+		}
+	}
+
+	/**
+	 * Stops the worker threads once the queued scenarios have run
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	private Result run(Scenario scenario) {
+		long start = System.nanoTime();
+
+		//The run's own copies, so nothing the scheduler changes is seen by other runs
+		AircraftDAO aircraftDAO = new AircraftDAO();
+		for(Aircraft a : aircraft) {
+			if(scenario.uses(a)) {
+				aircraftDAO.aircraft.add(copy(a));
+			}
+		}
+		CrewDAO crewDAO = new CrewDAO();
+		for(int i = 0; i < crew.size(); i++) {
+			Crew c = crew.get(i);
+			if(scenario.uses(c)) {
+				String homeBase = scenario.homeBaseOf(loadedCrew.get(i));
+				Crew runCopy = copy(c, homeBase == null ? c.getHomeBase() : homeBase);
+				crewDAO.crewList.add(runCopy);
+				if(runCopy instanceof Pilot) {
+					crewDAO.pilotList.add((Pilot) runCopy);
+				}
+				else {
+					crewDAO.ccList.add((CabinCrew) runCopy);
+				}
+			}
+		}
+
+		//Taken before scheduling, as the scheduler moves crew away from their home bases
+		List<String> bottlenecks = new CapacityAnalyser(aircraftDAO, crewDAO, routeDAO, scenario.getStartDate(), scenario.getEndDate()).getBottleneckReport();
+		Schedule schedule = new Scheduler().generateSchedule(aircraftDAO, crewDAO, routeDAO, passengerNumbersDAO, scenario.getStartDate(), scenario.getEndDate());
+		long score = new QualityScoreCalculator(aircraftDAO, crewDAO, passengerNumbersDAO, schedule).calculateQualityScore();
+		return new Result(scenario, aircraftDAO, crewDAO, schedule, score, (System.nanoTime() - start) / 1_000_000, bottlenecks);
+	}
+
+	private static IPassengerNumbersDAO shared(IPassengerNumbersDAO dao) {
+		if(dao instanceof PassengerForecast) {
+			return dao;
+		}
+		if(dao instanceof PassengerNumbersDAO) {
+			try {
+				return new PassengerForecast((PassengerNumbersDAO) dao, null, null);
+			}
+			catch(DataLoadingException e) {
+				System.err.println("Could not prefetch passenger numbers, looking them up per flight: " + e.getCause());
+			}
+		}
+		return new SharedPassengerNumbers(dao);
+	}
+
+	private static Aircraft copy(Aircraft a) {
+		Aircraft copy = new Aircraft();
+		copy.setTailCode(a.getTailCode());
+		copy.setModel(a.getModel());
+		copy.setTypeCode(a.getTypeCode());
+		copy.setManufacturer(a.getManufacturer());
+		copy.setStartingPosition(a.getStartingPosition());
+		copy.setSeats(a.getSeats());
+		copy.setCabinCrewRequired(a.getCabinCrewRequired());
+		return copy;
+	}
+
+	private static Crew copy(Crew c, String homeBase) {
+		Crew copy;
+		if(c instanceof Pilot) {
+			Pilot p = new Pilot();
+			p.setRank(((Pilot) c).getRank());
+			copy = p;
+		}
+		else {
+			copy = new CabinCrew();
+		}
+		copy.setForename(c.getForename());
+		copy.setSurname(c.getSurname());
+		copy.setHomeBase(homeBase);
+		for(String type : c.getTypeRatings()) {
+			copy.setQualifiedFor(type);
+		}
+		return copy;
+	}
+
+	/**
+	 * Passes lookups through to the loaded passenger numbers one thread at a time
+	 */
+	private static class SharedPassengerNumbers implements IPassengerNumbersDAO {
+		private IPassengerNumbersDAO dao;
+
+		SharedPassengerNumbers(IPassengerNumbersDAO dao) {
+			this.dao = dao;
+		}
+
+		@Override
+		public int getPassengerNumbersFor(int flightNumber, LocalDate date) {
+			synchronized(dao) {
+				return dao.getPassengerNumbersFor(flightNumber, date);
+			}
+		}
+
+		@Override
+		public int getNumberOfEntries() {
+			synchronized(dao) {
+				return dao.getNumberOfEntries();
+			}
+		}
+
+		/**
+		 * Not supported: the scenarios share the data loaded before the runner was created, which is not reloaded while they run
+		 * @throws UnsupportedOperationException always
+		 */
+		@Override
+		public void loadPassengerNumbersData(Path p) throws DataLoadingException {
+			throw new UnsupportedOperationException("The passenger numbers shared by running scenarios cannot be reloaded");
+		}
+
+		/**
+		 * Not supported, as the shared data must stay loaded for the scenarios still running
+		 * @throws UnsupportedOperationException always
+		 */
+		@Override
+		public void reset() {
+			throw new UnsupportedOperationException("The passenger numbers shared by running scenarios cannot be reset");
+		}
+	}
+
+}
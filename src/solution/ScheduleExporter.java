@@ -0,0 +1,272 @@
+package solution;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import baseclasses.CabinCrew;
+import baseclasses.Crew;
+import baseclasses.FlightInfo;
+import baseclasses.ICrewDAO;
+import baseclasses.Schedule;
+
+/**
+ * The ScheduleExporter writes a completed schedule out as CSV or JSON for other systems to read,
+ * either one row per flight leg or one row per crew duty.
+ * Rows are built one at a time in a reused StringBuilder and encoded straight into a fixed-size buffer
+ * that is written to a FileChannel whenever it fills, so memory use does not grow with the size of the schedule
+ */
+public class ScheduleExporter {
+
+	public enum Format {
+		CSV, JSON
+	}
+
+	private static final String[] FLIGHT_COLUMNS = {"FlightNumber", "DepartureAirport", "DepartureTime", "ArrivalAirport", "ArrivalTime",
+			"Aircraft", "Captain", "FirstOfficer", "CabinCrew"};
+	private static final String[] DUTY_COLUMNS = {"Crew", "Role", "FlightNumber", "DepartureAirport", "DepartureTime", "ArrivalAirport", "ArrivalTime",
+			"Aircraft"};
+
+	/**
+	 * Writes one row per completed flight, in departure order
+	 * @param schedule the schedule to export; it is not changed
+	 * @param p the file to write to, replaced if it exists
+	 * @param format CSV with a header row, or a JSON array of objects
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void exportFlights(Schedule schedule, Path p, Format format) throws IOException {
+		List<FlightInfo> flights = schedule.getCompletedAllocations();
+		flights.sort(null);
+
+		try(RowWriter out = new RowWriter(p, format, FLIGHT_COLUMNS)) {
+			for(FlightInfo f : flights) {
+				out.startRow();
+				out.number(f.getFlight().getFlightNumber());
+				out.text(f.getFlight().getDepartureAirportCode());
+				out.text(f.getDepartureDateTime().toString());
+				out.text(f.getFlight().getArrivalAirportCode());
+				out.text(f.getLandingDateTime().toString());
+				out.text(schedule.getAircraftFor(f).getTailCode());
+				out.text(name(schedule.getCaptainOf(f)));
+				out.text(name(schedule.getFirstOfficerOf(f)));
+				out.names(schedule.getCabinCrewOf(f));
+				out.endRow();
+			}
+		}
+	}
+
+	/**
+	 * Writes one row for every flight each crew member works, crew member by crew member and each in departure order
+	 * @param schedule the schedule to export; it is not changed
+	 * @param crewDAO the crew to export duties for
+	 * @param p the file to write to, replaced if it exists
+	 * @param format CSV with a header row, or a JSON array of objects
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void exportCrewDuties(Schedule schedule, ICrewDAO crewDAO, Path p, Format format) throws IOException {
+		try(RowWriter out = new RowWriter(p, format, DUTY_COLUMNS)) {
+			for(Crew c : crewDAO.getAllCrew()) {
+				List<FlightInfo> duties = schedule.getCompletedAllocationsFor(c);
+				duties.sort(null);
+				for(FlightInfo f : duties) {
+					out.startRow();
+					out.text(name(c));
+					out.text(schedule.getCaptainOf(f) == c ? "CAPTAIN" : schedule.getFirstOfficerOf(f) == c ? "FIRST_OFFICER" : "CABIN_CREW");
+					out.number(f.getFlight().getFlightNumber());
+					out.text(f.getFlight().getDepartureAirportCode());
+					out.text(f.getDepartureDateTime().toString());
+					out.text(f.getFlight().getArrivalAirportCode());
+					out.text(f.getLandingDateTime().toString());
+					out.text(schedule.getAircraftFor(f).getTailCode());
+					out.endRow();
+				}
+			}
+		}
+	}
+
+	private static String name(Crew c) {
+		return c.getForename() + " " + c.getSurname();
+	}
+
+	/**
+	 * Builds each row in a StringBuilder and encodes it into a direct buffer with one CharsetEncoder for the whole file
+	 */
+	private static class RowWriter implements AutoCloseable {
+		private FileChannel channel;
+		private Format format;
+		private String[] columns;
+		private CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+		private ByteBuffer bytes = ByteBuffer.allocateDirect(1 << 16);
+		private StringBuilder row = new StringBuilder(256);
+		private int column;
+		private boolean firstRow = true;
+
+		RowWriter(Path p, Format format, String[] columns) throws IOException {
+			channel = FileChannel.open(p, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			this.format = format;
+			this.columns = columns;
+
+			if(format == Format.CSV) {
+				row.append(String.join(",", columns)).append('\n');
+			}
+			else {
+				row.append("[\n");
+			}
+			encode(false);
+		}
+
+		void startRow() {
+			row.setLength(0);
+			column = 0;
+			if(format == Format.JSON) {
+				row.append(firstRow ? "{" : ",\n{");
+			}
+			firstRow = false;
+		}
+
+		void text(String value) {
+			key();
+			if(format == Format.CSV) {
+				csv(value);
+			}
+			else {
+				json(value);
+			}
+		}
+
+		void number(int value) {
+			key();
+			row.append(value);
+		}
+
+		/**
+		 * Writes the crew's names as one CSV field separated by semicolons, or as a JSON array
+		 */
+		void names(List<CabinCrew> crew) {
+			key();
+			if(format == Format.CSV) {
+				int start = row.length();
+				for(int i = 0; i < crew.size(); i++) {
+					row.append(i == 0 ? "" : ";").append(crew.get(i).getForename()).append(' ').append(crew.get(i).getSurname());
+				}
+				String joined = row.substring(start);
+				row.setLength(start);
+				csv(joined);
+			}
+			else {
+				row.append('[');
+				for(int i = 0; i < crew.size(); i++) {
+					row.append(i == 0 ? "" : ",");
+					json(name(crew.get(i)));
+				}
+				row.append(']');
+			}
+		}
+
+		void endRow() throws IOException {
+			row.append(format == Format.CSV ? "\n" : "}");
+			encode(false);
+		}
+
+		/**
+		 * Writes the separator and, for JSON, the name of the next column
+		 */
+		private void key() {
+			if(format == Format.CSV) {
+				if(column > 0) {
+					row.append(',');
+				}
+			}
+			else {
+				row.append(column > 0 ? ",\"" : "\"").append(columns[column]).append("\":");
+			}
+			column++;
+		}
+
+		private void csv(String value) {
+			if(value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+				row.append(value);
+				return;
+			}
+			row.append('"');
+			for(int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				if(c == '"') {
+					row.append('"');
+				}
+				row.append(c);
+			}
+			row.append('"');
+		}
+
+		private void json(String value) {
+			row.append('"');
+			for(int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				if(c == '"' || c == '\\') {
+					row.append('\\').append(c);
+				}
+				else if(c < 0x20) {
+					row.append(String.format("\\u%04x", (int) c));
+				}
+				else {
+					row.append(c);
+				}
+			}
+			row.append('"');
+		}
+
+		/**
+		 * Encodes the current row into the buffer, writing the buffer out each time it fills
+		 */
+		private void encode(boolean endOfInput) throws IOException {
+			CharBuffer chars = CharBuffer.wrap(row);
+			while(true) {
+				CoderResult result = encoder.encode(chars, bytes, endOfInput);
+				if(result.isOverflow()) {
+					drain();
+				}
+				else if(result.isUnderflow()) {
+					break;
+				}
+				else {
+					result.throwException();
+				}
+			}
+			row.setLength(0);
+		}
+
+		private void drain() throws IOException {
+			bytes.flip();
+			while(bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+			bytes.clear();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				row.setLength(0);
+				if(format == Format.JSON) {
+					row.append(firstRow ? "]\n" : "\n]\n");
+				}
+				encode(true);
+				while(encoder.flush(bytes).isOverflow()) {
+					drain();
+				}
+				drain();
+			}
+			finally {
+				channel.close();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,293 @@
+package solution;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import baseclasses.Aircraft;
+import baseclasses.CabinCrew;
+import baseclasses.Crew;
+import baseclasses.DataLoadingException;
+import baseclasses.DoubleBookedException;
+import baseclasses.FlightInfo;
+import baseclasses.IAircraftDAO;
+import baseclasses.ICrewDAO;
+import baseclasses.IRouteDAO;
+import baseclasses.InvalidAllocationException;
+import baseclasses.Pilot;
+import baseclasses.Schedule;
+
+/**
+ * The ScheduleStore saves the completed allocations of a Schedule to a compact binary file and loads them
+ * back into a new Schedule, so a run can start from a previous plan instead of from nothing.
+ * Aircraft and crew are written once to a string table and referred to by their index in it.
+ * They are named by their RecordKeys key, numbered the same way on saving and loading, so records the data files
+ * list more than once, such as a tail code used twice, are still told apart
+ */
+public class ScheduleStore {
+
+	private static final int MAGIC = 0x41505343;
+	private static final int VERSION = 2;
+
+	/**
+	 * A loaded schedule, with how many of the saved flights could be allocated again
+	 */
+	public static class Result {
+		private Schedule schedule;
+		private int saved;
+		private int restored;
+
+		private Result(Schedule schedule, int saved, int restored) {
+			this.schedule = schedule;
+			this.saved = saved;
+			this.restored = restored;
+		}
+
+		public Schedule getSchedule() {
+			return schedule;
+		}
+
+		public int getSavedFlights() {
+			return saved;
+		}
+
+		public int getRestoredFlights() {
+			return restored;
+		}
+
+		/**
+		 * Returns true if every saved flight was allocated again
+		 * @return false if any saved flight was left remaining
+		 */
+		public boolean isComplete() {
+			return restored == saved;
+		}
+	}
+
+	/**
+	 * Saves every completed allocation in the schedule
+	 * @param schedule the schedule to save
+	 * @param aircraftDAO the aircraft the schedule was built from
+	 * @param crewDAO the crew the schedule was built from
+	 * @param p the file to write to, replaced if it exists
+	 * @throws IOException if the file cannot be written
+	 * @throws IllegalArgumentException if the schedule uses an aircraft or crew member the DAOs do not hold
+	 */
+	public static void save(Schedule schedule, IAircraftDAO aircraftDAO, ICrewDAO crewDAO, Path p) throws IOException {
+		List<FlightInfo> flights = schedule.getCompletedAllocations();
+		Map<Aircraft, String> aircraftKeys = RecordKeys.keysOf(aircraftDAO.getAllAircraft(), RecordKeys::aircraftKey);
+		Map<Crew, String> crewKeys = RecordKeys.keysOf(crewDAO.getAllCrew(), RecordKeys::crewKey);
+
+		//Intern every aircraft and crew member so each is written once
+		Map<Object, Integer> ids = new IdentityHashMap<>();
+		List<String> names = new ArrayList<>();
+		for(FlightInfo f : flights) {
+			intern(ids, names, schedule.getAircraftFor(f), aircraftKeys);
+			intern(ids, names, schedule.getCaptainOf(f), crewKeys);
+			intern(ids, names, schedule.getFirstOfficerOf(f), crewKeys);
+			for(CabinCrew cc : schedule.getCabinCrewOf(f)) {
+				intern(ids, names, cc, crewKeys);
+			}
+		}
+
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(p), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			out.writeLong(schedule.getStartDate().toEpochDay());
+			out.writeLong(schedule.getEndDate().toEpochDay());
+
+			writeVarInt(out, names.size());
+			for(String name : names) {
+				out.writeUTF(name);
+			}
+
+			long startDay = schedule.getStartDate().toEpochDay();
+			writeVarInt(out, flights.size());
+			for(FlightInfo f : flights) {
+				writeVarInt(out, f.getFlight().getFlightNumber());
+				writeVarInt(out, (int) (f.getDepartureDateTime().toLocalDate().toEpochDay() - startDay));
+				writeVarInt(out, ids.get(schedule.getAircraftFor(f)));
+				writeVarInt(out, ids.get(schedule.getCaptainOf(f)));
+				writeVarInt(out, ids.get(schedule.getFirstOfficerOf(f)));
+				List<CabinCrew> cabinCrew = schedule.getCabinCrewOf(f);
+				writeVarInt(out, cabinCrew.size());
+				for(CabinCrew cc : cabinCrew) {
+					writeVarInt(out, ids.get(cc));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Loads a saved schedule, allocating and completing every flight whose aircraft and crew can still be found.
+	 * Flights that no longer exist, or whose aircraft or crew are missing or now clash, are left remaining;
+	 * the result says how many were restored, so the caller can decide whether a partial plan is good enough
+	 * @param p the file to read from
+	 * @param aircraftDAO the loaded aircraft, matched by tail code and, for repeated tail codes, their order
+	 * @param crewDAO the loaded crew, matched by name and, for repeated names, their order
+	 * @param routeDAO the loaded routes to build the schedule from
+	 * @return a new schedule over the saved date range, with the number of flights saved and restored
+	 * @throws DataLoadingException if the file cannot be read or is not a saved schedule of this version
+	 */
+	public static Result load(Path p, IAircraftDAO aircraftDAO, ICrewDAO crewDAO, IRouteDAO routeDAO) throws DataLoadingException {
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(p), 1 << 16))) {
+			if(in.readInt() != MAGIC || in.readByte() != VERSION) {
+				throw new DataLoadingException(new IOException(p + " is not a saved schedule"));
+			}
+			LocalDate startDate = LocalDate.ofEpochDay(in.readLong());
+			LocalDate endDate = LocalDate.ofEpochDay(in.readLong());
+			Schedule schedule = new Schedule(routeDAO, startDate, endDate);
+
+			Map<String, Aircraft> aircraftByKey = RecordKeys.byKey(aircraftDAO.getAllAircraft(), RecordKeys::aircraftKey);
+			Map<String, Crew> crewByKey = RecordKeys.byKey(crewDAO.getAllCrew(), RecordKeys::crewKey);
+			Object[] table = new Object[readVarInt(in)];
+			for(int i = 0; i < table.length; i++) {
+				String name = in.readUTF();
+				table[i] = aircraftByKey.containsKey(name) ? aircraftByKey.get(name) : crewByKey.get(name);
+			}
+
+			Map<Long, FlightInfo> flights = new HashMap<>();
+			for(FlightInfo f : schedule.getRemainingAllocations()) {
+				flights.put(flightKey(f.getFlight().getFlightNumber(), f.getDepartureDateTime().toLocalDate().toEpochDay()), f);
+			}
+
+			int count = readVarInt(in);
+			int restored = 0;
+			for(int i = 0; i < count; i++) {
+				int flightNumber = readVarInt(in);
+				long day = startDate.toEpochDay() + readVarInt(in);
+				Object aircraft = table[readVarInt(in)];
+				Object captain = table[readVarInt(in)];
+				Object firstOfficer = table[readVarInt(in)];
+				CabinCrew[] cabinCrew = new CabinCrew[readVarInt(in)];
+				boolean resolved = aircraft instanceof Aircraft && captain instanceof Pilot && firstOfficer instanceof Pilot;
+				for(int j = 0; j < cabinCrew.length; j++) {
+					Object cc = table[readVarInt(in)];
+					resolved &= cc instanceof CabinCrew;
+					cabinCrew[j] = resolved ? (CabinCrew) cc : null;
+				}
+
+				FlightInfo f = flights.get(flightKey(flightNumber, day));
+				if(f != null && resolved && allocate(schedule, f, (Aircraft) aircraft, (Pilot) captain, (Pilot) firstOfficer, cabinCrew)) {
+					restored++;
+				}
+			}
+			return new Result(schedule, count, restored);
+		}
+		catch(IOException | ArrayIndexOutOfBoundsException e) {
+			throw new DataLoadingException(e);
+		}
+	}
+
+	/**
+	 * Copies the completed allocations of a schedule into a new one over the same dates, leaving the rest remaining.
+	 * The copy refers to the same aircraft and crew, and later changes to either schedule are not seen by the other
+	 * @param schedule the schedule to copy
+	 * @param routeDAO the routes the schedule was built from
+	 * @return the copy
+	 */
+	static Schedule copy(Schedule schedule, IRouteDAO routeDAO) {
+		Schedule copy = new Schedule(routeDAO, schedule.getStartDate(), schedule.getEndDate());
+		Map<Long, FlightInfo> flights = remainingByKey(copy);
+		for(FlightInfo f : schedule.getCompletedAllocations()) {
+			copyAllocation(schedule, f, copy, flights);
+		}
+		return copy;
+	}
+
+	/**
+	 * Keys the flights still remaining in a schedule by flight number and date, for copyAllocation()
+	 * @param schedule the schedule to copy into
+	 * @return the remaining flights by key
+	 */
+	static Map<Long, FlightInfo> remainingByKey(Schedule schedule) {
+		Map<Long, FlightInfo> flights = new HashMap<>();
+		for(FlightInfo f : schedule.getRemainingAllocations()) {
+			flights.put(flightKey(f.getFlight().getFlightNumber(), f.getDepartureDateTime().toLocalDate().toEpochDay()), f);
+		}
+		return flights;
+	}
+
+	/**
+	 * Copies one completed allocation into the same flight of another schedule over the same routes
+	 * @param from the schedule holding the allocation
+	 * @param f the completed flight in that schedule
+	 * @param to the schedule to copy it into
+	 * @param flights the flights of the target schedule, from remainingByKey()
+	 * @return whether the flight was found and completed in the target schedule
+	 */
+	static boolean copyAllocation(Schedule from, FlightInfo f, Schedule to, Map<Long, FlightInfo> flights) {
+		FlightInfo target = flights.get(flightKey(f.getFlight().getFlightNumber(), f.getDepartureDateTime().toLocalDate().toEpochDay()));
+		return target != null && allocate(to, target, from.getAircraftFor(f), from.getCaptainOf(f), from.getFirstOfficerOf(f),
+				from.getCabinCrewOf(f).toArray(new CabinCrew[0]));
+	}
+
+	/**
+	 * Allocates and completes one flight; if anything clashes the flight is unallocated again, never left half allocated
+	 * @return whether the flight was completed
+	 */
+	private static boolean allocate(Schedule schedule, FlightInfo f, Aircraft aircraft, Pilot captain, Pilot firstOfficer, CabinCrew[] cabinCrew) {
+		try {
+			schedule.allocateAircraftTo(aircraft, f);
+			schedule.allocateCaptainTo(captain, f);
+			schedule.allocateFirstOfficerTo(firstOfficer, f);
+			for(CabinCrew cc : cabinCrew) {
+				schedule.allocateCabinCrewTo(cc, f);
+			}
+			schedule.completeAllocationFor(f);
+			return true;
+		}
+		catch(DoubleBookedException | InvalidAllocationException e) {
+			Scheduler.unAllocate(schedule, f);
+			return false;
+		}
+	}
+
+	private static long flightKey(int flightNumber, long epochDay) {
+		return ((long) flightNumber << 32) | (epochDay & 0xFFFFFFFFL);
+	}
+
+	private static <T> void intern(Map<Object, Integer> ids, List<String> names, T o, Map<T, String> keys) {
+		if(!ids.containsKey(o)) {
+			String name = keys.get(o);
+			if(name == null) {
+				throw new IllegalArgumentException("The schedule uses " + o + ", which is not in the DAOs it is being saved with");
+			}
+			ids.put(o, names.size());
+			names.add(name);
+		}
+	}
+
+	/**
+	 * Writes a non-negative int in 7-bit groups, so small ids and day offsets take a single byte
+	 */
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+		while((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(DataInputStream in) throws IOException {
+		int value = 0;
+		int shift = 0;
+		int b;
+		do {
+			b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while((b & 0x80) != 0);
+		return value;
+	}
+
+}
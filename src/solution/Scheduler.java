@@ -1,7 +1,12 @@
 package solution;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import baseclasses.IAircraftDAO;
 import baseclasses.ICrewDAO;
@@ -22,14 +27,103 @@ import baseclasses.Crew;
 
 public class Scheduler implements IScheduler {
 	//105 million is Kris' score
+	
+	//Set by the SchedulerRunner before a run, to be told of progress and to stop the run
+	private SchedulerRunner runner;
+	private volatile boolean stopped = false;
+	
+	//The flights the last repair could not find a full allocation for
+	private List<FlightInfo> unrepaired = new ArrayList<>();
+	
+	//Where each aircraft started and each crew member was based before scheduling moved them to their last arrival
+	private Map<Object, String> bases = new IdentityHashMap<>();
+	
 	@Override
 	public Schedule generateSchedule(IAircraftDAO arg0, ICrewDAO arg1, IRouteDAO arg2, IPassengerNumbersDAO arg3,
 			LocalDate arg4, LocalDate arg5) {
 		
 		Schedule schedule = new Schedule(arg2, arg4, arg5);
 		
+		return completeSchedule(schedule, arg0, arg1, arg2, arg3);
+	}
+	
+	/**
+	 * Allocates every flight still remaining in a schedule, without passenger numbers to size aircraft by
+	 * @param schedule the schedule to complete
+	 * @param arg0 the loaded aircraft
+	 * @param arg1 the loaded crew
+	 * @param arg2 the loaded routes the schedule was built from
+	 * @return the same schedule
+	 */
+	public Schedule completeSchedule(Schedule schedule, IAircraftDAO arg0, ICrewDAO arg1, IRouteDAO arg2) {
+		return completeSchedule(schedule, arg0, arg1, arg2, null);
+	}
+	
+	/**
+	 * Allocates every flight still remaining in a schedule, leaving completed allocations alone.
+	 * generateSchedule() uses this on an empty schedule; it can also carry on from a schedule loaded with ScheduleStore
+	 * @param schedule the schedule to complete
+	 * @param arg0 the loaded aircraft
+	 * @param arg1 the loaded crew
+	 * @param arg2 the loaded routes the schedule was built from
+	 * @param arg3 the loaded passenger numbers, used to pick aircraft of the right size; may be null
+	 * @return the same schedule
+	 */
+	public Schedule completeSchedule(Schedule schedule, IAircraftDAO arg0, ICrewDAO arg1, IRouteDAO arg2, IPassengerNumbersDAO arg3) {
+		LocalDate arg4 = schedule.getStartDate();
+		LocalDate arg5 = schedule.getEndDate();
+		//SchedulerRunner always calls stop() once its run is over, so a stop from an earlier run must not end this one
+		stopped = false;
+		
+		SchedulerStatsEvent stats = new SchedulerStatsEvent();
+		stats.begin();
+		
+		//Type ratings and ranks never change while scheduling, so tiers that need one nobody holds are skipped
+		SchedulerPhaseEvent phase = SchedulerPhaseEvent.start("capacity analysis");
+		CapacityAnalyser capacity = new CapacityAnalyser(arg0, arg1, arg2, arg4, arg5);
+		phase.commit();
+		
+		//Lets the crew fallback tiers prefer crew who can travel to the departure airport as passengers in time
+		phase = SchedulerPhaseEvent.start("positioning cache");
+		PositioningPathCache positioning = new PositioningPathCache(arg2, arg4, arg5);
+		phase.commit();
+		
+		//Every forecast for the schedule is fetched up front, so choosing aircraft never goes back to the database
+		phase = SchedulerPhaseEvent.start("demand forecast");
+		PassengerForecast forecast = arg3 == null ? null : PassengerForecast.forSchedule(arg3, schedule);
+		Map<Integer, Route> otherLegs = PassengerForecast.otherLegs(arg2);
+		FleetIndex fleet = new FleetIndex(arg0.getAllAircraft());
+		phase.commit();
+		
+		phase = SchedulerPhaseEvent.start("allocation");
+		for(Aircraft a : arg0.getAllAircraft()) {
+			bases.putIfAbsent(a, a.getStartingPosition());
+		}
+		for(Crew c : arg1.getAllCrew()) {
+			bases.putIfAbsent(c, c.getHomeBase());
+		}
+		Map<Crew, LocalDateTime> crewReadyAt = new HashMap<>();
+		for(FlightInfo f : schedule.getCompletedAllocations()) {
+			landed(crewReadyAt, schedule, f);
+		}
+		
+		LocalDate reportedDay = null;
 		for(FlightInfo f : schedule.getRemainingAllocations()) {
-			for(Aircraft a : arg0.getAllAircraft()) {
+			if(stopped) {
+				break;
+			}
+			
+			//Progress is reported once per day of flights, so a recording runner sees how the schedule builds up
+			if(runner != null && !f.getDepartureDateTime().toLocalDate().equals(reportedDay)) {
+				runner.reportBestScheduleSoFar(schedule);
+				reportedDay = f.getDepartureDateTime().toLocalDate();
+			}
+			
+			stats.flights++;
+			
+			//Each tier tries the smallest aircraft with enough seats for the rotation first
+			List<Aircraft> sized = forecast == null ? arg0.getAllAircraft() : fleet.inSizeOrder(forecast.getRotationDemand(f, otherLegs.get(f.getFlight().getFlightNumber())));
+			for(Aircraft a : sized) {
 				try {
 					if(a.getStartingPosition() == f.getFlight().getDepartureAirportCode()) {
 						schedule.allocateAircraftTo(a, f);
@@ -38,24 +132,27 @@ public class Scheduler implements IScheduler {
 					}
 				}
 				catch(DoubleBookedException e) {
-					//Leave this blank for now
+					stats.doubleBooked++;
 				}
 			}
 			
 			if(schedule.getAircraftFor(f) == null) {
-				for(Aircraft a : arg0.getAllAircraft()) {
+				stats.aircraftFallbacks++;
+				for(Aircraft a : sized) {
 					try {
 						schedule.allocateAircraftTo(a, f);
 						a.setStartingPosition(f.getFlight().getArrivalAirportCode());
 						break;
 					}
 					catch(DoubleBookedException e) {
-						//Leave this blank for now
+						stats.doubleBooked++;
 					}
 				}
 			}
 			
-			for(Pilot p : arg1.getAllPilots()) {
+			String typeCode = schedule.getAircraftFor(f) == null ? null : schedule.getAircraftFor(f).getTypeCode();
+			
+			for(Pilot p : capacity.hasQualifiedCaptains(typeCode) ? arg1.getAllPilots() : new ArrayList<Pilot>()) {
 				try {
 					if(p.isQualifiedFor(schedule.getAircraftFor(f)) && p.getRank() == Rank.CAPTAIN) {
 						schedule.allocateCaptainTo(p, f);
@@ -64,11 +161,12 @@ public class Scheduler implements IScheduler {
 					}
 				}
 				catch(DoubleBookedException e) {
-					//Leave this blank for now
+					stats.doubleBooked++;
 				}
 			}
 			
-			if(schedule.getCaptainOf(f) == null) {
+			if(schedule.getCaptainOf(f) == null && capacity.hasCaptains()) {
+				stats.captainFallbacks++;
 				for(Pilot p : arg1.findPilotsByHomeBase(f.getFlight().getDepartureAirportCode())) {
 					try {
 						if(p.getRank() == Rank.CAPTAIN) {
@@ -78,12 +176,29 @@ public class Scheduler implements IScheduler {
 						}
 					}
 					catch(DoubleBookedException e) {
-						//Leave this blank for now
+						stats.doubleBooked++;
 					}
 				}
 			}
 			
-			if(schedule.getCaptainOf(f) == null) {
+			if(schedule.getCaptainOf(f) == null && capacity.hasCaptains()) {
+				stats.captainFallbacks++;
+				for(Pilot p : arg1.getAllPilots()) {
+					try {
+						if(p.getRank() == Rank.CAPTAIN && canPosition(positioning, crewReadyAt, p, f, arg4)) {
+							schedule.allocateCaptainTo(p, f);
+							p.setHomeBase(f.getFlight().getArrivalAirportCode());
+							break;
+						}
+					}
+					catch(DoubleBookedException e) {
+						stats.doubleBooked++;
+					}
+				}
+			}
+			
+			if(schedule.getCaptainOf(f) == null && capacity.hasCaptains()) {
+				stats.captainFallbacks++;
 				for(Pilot p : arg1.getAllPilots()) {
 					try {
 						if(p.getRank() == Rank.CAPTAIN) {
@@ -93,12 +208,13 @@ public class Scheduler implements IScheduler {
 						}
 					}
 					catch(DoubleBookedException e) {
-						//Leave this blank for now
+						stats.doubleBooked++;
 					}
 				}
 			}
 			
 			if(schedule.getCaptainOf(f) == null) {
+				stats.captainFallbacks++;
 				for(Pilot p : arg1.getAllPilots()) {
 					try {
 						schedule.allocateCaptainTo(p, f);
@@ -106,12 +222,12 @@ public class Scheduler implements IScheduler {
 						break;
 					}
 					catch(DoubleBookedException e) {
-						//Leave this blank for now
+						stats.doubleBooked++;
 					}
 				}
 			}
 			
-			for(Pilot p : arg1.getAllPilots()) {
+			for(Pilot p : capacity.hasQualifiedPilots(typeCode) ? arg1.getAllPilots() : new ArrayList<Pilot>()) {
 				try {
 					if(p.isQualifiedFor(schedule.getAircraftFor(f))) {
 						schedule.allocateFirstOfficerTo(p, f);
@@ -120,11 +236,12 @@ public class Scheduler implements IScheduler {
 					}
 				}
 				catch(DoubleBookedException e) {
-					//Leave this blank for now
+					stats.doubleBooked++;
 				}
 			}
 			
 			if(schedule.getFirstOfficerOf(f) == null) {
+				stats.firstOfficerFallbacks++;
 				for(Pilot p : arg1.findPilotsByHomeBase(f.getFlight().getDepartureAirportCode())) {
 					try {
 						schedule.allocateFirstOfficerTo(p, f);
@@ -132,12 +249,29 @@ public class Scheduler implements IScheduler {
 						break;
 					}
 					catch(DoubleBookedException e) {
-						//Leave this blank for now
+						stats.doubleBooked++;
 					}
 				}
 			}
 			
 			if(schedule.getFirstOfficerOf(f) == null) {
+				stats.firstOfficerFallbacks++;
+				for(Pilot p : arg1.getAllPilots()) {
+					try {
+						if(canPosition(positioning, crewReadyAt, p, f, arg4)) {
+							schedule.allocateFirstOfficerTo(p, f);
+							p.setHomeBase(f.getFlight().getArrivalAirportCode());
+							break;
+						}
+					}
+					catch(DoubleBookedException e) {
+						stats.doubleBooked++;
+					}
+				}
+			}
+			
+			if(schedule.getFirstOfficerOf(f) == null) {
+				stats.firstOfficerFallbacks++;
 				for(Pilot p : arg1.getAllPilots()) {
 					try {
 						schedule.allocateFirstOfficerTo(p, f);
@@ -145,12 +279,12 @@ public class Scheduler implements IScheduler {
 						break;
 					}
 					catch(DoubleBookedException e) {
-						//Leave this blank for now
+						stats.doubleBooked++;
 					}
 				}
 			}
 			
-			for(CabinCrew cc : arg1.getAllCabinCrew()) {
+			for(CabinCrew cc : capacity.hasQualifiedCabinCrew(typeCode) ? arg1.getAllCabinCrew() : new ArrayList<CabinCrew>()) {
 				if(schedule.getCabinCrewOf(f).size() < schedule.getAircraftFor(f).getCabinCrewRequired()) {
 					try {
 						if(cc.isQualifiedFor(schedule.getAircraftFor(f))) {
@@ -159,12 +293,13 @@ public class Scheduler implements IScheduler {
 						}
 					}
 					catch(DoubleBookedException e) {
-						//Leave this blank for now
+						stats.doubleBooked++;
 					}
 				}
 			}
 			
 			if(schedule.getCabinCrewOf(f).size() < schedule.getAircraftFor(f).getCabinCrewRequired()) {
+				stats.cabinCrewFallbacks++;
 				for(CabinCrew cc : arg1.findCabinCrewByHomeBase(f.getFlight().getDepartureAirportCode())) {
 					if(schedule.getCabinCrewOf(f).size() < schedule.getAircraftFor(f).getCabinCrewRequired()) {
 						try {
@@ -172,13 +307,31 @@ public class Scheduler implements IScheduler {
 							cc.setHomeBase(f.getFlight().getArrivalAirportCode());
 						}
 						catch(DoubleBookedException e) {
-							//Leave this blank for now
+							stats.doubleBooked++;
 						}
 					}
 				}
 			}
 			
 			if(schedule.getCabinCrewOf(f).size() < schedule.getAircraftFor(f).getCabinCrewRequired()) {
+				stats.cabinCrewFallbacks++;
+				for(CabinCrew cc : arg1.getAllCabinCrew()) {
+					if(schedule.getCabinCrewOf(f).size() < schedule.getAircraftFor(f).getCabinCrewRequired()) {
+						try {
+							if(canPosition(positioning, crewReadyAt, cc, f, arg4)) {
+								schedule.allocateCabinCrewTo(cc, f);
+								cc.setHomeBase(f.getFlight().getArrivalAirportCode());
+							}
+						}
+						catch(DoubleBookedException e) {
+							stats.doubleBooked++;
+						}
+					}
+				}
+			}
+			
+			if(schedule.getCabinCrewOf(f).size() < schedule.getAircraftFor(f).getCabinCrewRequired()) {
+				stats.cabinCrewFallbacks++;
 				for(CabinCrew cc : arg1.getAllCabinCrew()) {
 					if(schedule.getCabinCrewOf(f).size() < schedule.getAircraftFor(f).getCabinCrewRequired()) {
 						try {
@@ -186,32 +339,428 @@ public class Scheduler implements IScheduler {
 							cc.setHomeBase(f.getFlight().getArrivalAirportCode());
 						}
 						catch(DoubleBookedException e) {
-							//Leave this blank for now
+							stats.doubleBooked++;
 						}
 					}
 				}
 			}
 			try {
 				schedule.completeAllocationFor(f);
+				landed(crewReadyAt, schedule, f);
 			}
 			catch(InvalidAllocationException e) {
-				//Leave this blank for now
+				stats.invalidAllocations++;
 			}
 		}
+		phase.commit();
+		stats.commit();
 		
+		if(runner != null) {
+			runner.reportBestScheduleSoFar(schedule);
+		}
 		return schedule;
 	}
 
+	/**
+	 * Returns true if the crew member is free in time to travel as a passenger from where they last landed to the flight's departure airport
+	 */
+	private static boolean canPosition(PositioningPathCache positioning, Map<Crew, LocalDateTime> crewReadyAt, Crew c, FlightInfo f, LocalDate startDate) {
+		LocalDateTime readyAt = crewReadyAt.getOrDefault(c, startDate.atStartOfDay());
+		return positioning.canReach(c.getHomeBase(), readyAt, f.getFlight().getDepartureAirportCode(), f.getDepartureDateTime());
+	}
+	
+	/**
+	 * Records when each crew member of a completed flight is next free
+	 */
+	private static void landed(Map<Crew, LocalDateTime> crewReadyAt, Schedule schedule, FlightInfo f) {
+		List<Crew> crew = new ArrayList<>(schedule.getCabinCrewOf(f));
+		crew.add(schedule.getCaptainOf(f));
+		crew.add(schedule.getFirstOfficerOf(f));
+		for(Crew c : crew) {
+			crewReadyAt.merge(c, f.getLandingDateTime(), (a, b) -> a.isAfter(b) ? a : b);
+		}
+	}
+	
+	/**
+	 * Repairs an existing schedule after a disruption, re-allocating only the flights it affects.
+	 * When an aircraft or crew member loses a flight, or a route is cancelled, their later legs that relied on them
+	 * landing where the lost flight took them are re-planned with someone else too.
+	 * Everything else on each affected flight is kept, and replacements are chosen from whoever is free,
+	 * preferring those already at the departure airport so rotations stay together.
+	 * Flights that cannot be fully allocated again are left remaining and, with any cancelled flights, listed by getUnrepairedFlights()
+	 * @param schedule the schedule to repair
+	 * @param disruption what has gone wrong
+	 * @param aircraftDAO the loaded aircraft
+	 * @param crewDAO the loaded crew
+	 * @param routeDAO the loaded routes the schedule was built from
+	 * @return the repaired schedule; the same object unless a route was cancelled
+	 */
+	public Schedule repairSchedule(Schedule schedule, Disruption disruption, IAircraftDAO aircraftDAO, ICrewDAO crewDAO, IRouteDAO routeDAO) {
+		SchedulerPhaseEvent phase = SchedulerPhaseEvent.start("repair");
+		unrepaired = new ArrayList<>();
+		
+		//The aircraft and crew each affected flight must not keep, beyond those the disruption blocks
+		Map<FlightInfo, List<Object>> released = new HashMap<>();
+		List<FlightInfo> affected = new ArrayList<>();
+		if(disruption.getType() == Disruption.Type.ROUTE_CANCELLED) {
+			List<FlightInfo> cancelled = new ArrayList<>();
+			for(FlightInfo f : schedule.getCompletedAllocations()) {
+				if(f.getFlight().getFlightNumber() == disruption.getFlightNumber()) {
+					cancelled.add(f);
+				}
+			}
+			cancelled.sort(null);
+			Schedule old = schedule;
+			schedule = withoutRoute(schedule, disruption.getFlightNumber(), routeDAO);
+			
+			//Everyone on a cancelled flight is left where it would have departed from, not where it would have landed
+			for(FlightInfo f : cancelled) {
+				List<Object> resources = new ArrayList<>(old.getCabinCrewOf(f));
+				resources.add(old.getAircraftFor(f));
+				resources.add(old.getCaptainOf(f));
+				resources.add(old.getFirstOfficerOf(f));
+				for(Object resource : resources) {
+					release(released, affected, resource, dependentLegs(allocationsFor(schedule, resource), Collections.singletonList(f), positionOf(resource)));
+				}
+			}
+			unrepaired.addAll(cancelled);
+		}
+		else if(disruption.getType() == Disruption.Type.AIRCRAFT_UNAVAILABLE) {
+			Aircraft aircraft = disruption.getAircraft();
+			for(FlightInfo f : schedule.getCompletedAllocationsFor(aircraft)) {
+				if(disruption.blocks(aircraft, f)) {
+					affected.add(f);
+				}
+			}
+			affected.sort(null);
+			//Only the flights in its unavailable period are lost, so the aircraft may have later legs that relied on them
+			if(!affected.isEmpty()) {
+				release(released, affected, aircraft, dependentLegs(schedule.getCompletedAllocationsFor(aircraft), new ArrayList<>(affected), positionOf(aircraft)));
+			}
+		}
+		else {
+			//A removed crew member loses every flight, so nothing of theirs is left to depend on them
+			affected.addAll(schedule.getCompletedAllocationsFor(disruption.getCrew()));
+		}
+		affected.sort(null);
+		
+		for(FlightInfo f : affected) {
+			refill(schedule, f, disruption, released.getOrDefault(f, Collections.emptyList()), aircraftDAO, crewDAO);
+		}
+		unrepaired.sort(null);
+		
+		phase.commit();
+		return schedule;
+	}
+	
+	/**
+	 * Re-allocates one flight, keeping everything on it that is still free and allowed and replacing the rest
+	 * @param released the aircraft and crew that must be replaced on this flight even though they are free
+	 */
+	private void refill(Schedule schedule, FlightInfo f, Disruption disruption, List<Object> released, IAircraftDAO aircraftDAO, ICrewDAO crewDAO) {
+		Aircraft aircraft = schedule.getAircraftFor(f);
+		Pilot captain = schedule.getCaptainOf(f);
+		Pilot firstOfficer = schedule.getFirstOfficerOf(f);
+		List<CabinCrew> cabinCrew = new ArrayList<>(schedule.getCabinCrewOf(f));
+		unAllocate(schedule, f);
+		
+		//Anything disrupted, released or now clashing with another flight is replaced from the free candidates
+		try {
+			if(aircraft == null || disruption.blocks(aircraft, f) || schedule.hasConflict(aircraft, f) || released.contains(aircraft)) {
+				aircraft = null;
+				for(Aircraft a : repairCandidates(schedule, f, aircraftDAO.getAllAircraft())) {
+					if(!disruption.blocks(a, f) && !released.contains(a)) {
+						aircraft = a;
+						break;
+					}
+				}
+			}
+			if(aircraft != null) {
+				schedule.allocateAircraftTo(aircraft, f);
+			}
+			
+			if(captain == null || disruption.blocks(captain) || schedule.hasConflict(captain, f) || released.contains(captain)) {
+				captain = null;
+				for(Pilot p : repairCandidates(schedule, f, crewDAO.getAllPilots())) {
+					if(!disruption.blocks(p) && !released.contains(p) && p.getRank() == Rank.CAPTAIN && p != firstOfficer) {
+						captain = p;
+						break;
+					}
+				}
+			}
+			if(captain == null) {
+				//As generateSchedule does, a first officer in the captain's seat is better than an uncrewed flight
+				for(Pilot p : repairCandidates(schedule, f, crewDAO.getAllPilots())) {
+					if(!disruption.blocks(p) && !released.contains(p) && p != firstOfficer) {
+						captain = p;
+						break;
+					}
+				}
+			}
+			if(captain != null) {
+				schedule.allocateCaptainTo(captain, f);
+			}
+			
+			if(firstOfficer == null || disruption.blocks(firstOfficer) || schedule.hasConflict(firstOfficer, f) || released.contains(firstOfficer)
+					|| firstOfficer == captain) {
+				firstOfficer = null;
+				for(Pilot p : repairCandidates(schedule, f, crewDAO.getAllPilots())) {
+					if(!disruption.blocks(p) && !released.contains(p) && p != captain) {
+						firstOfficer = p;
+						break;
+					}
+				}
+			}
+			if(firstOfficer != null) {
+				schedule.allocateFirstOfficerTo(firstOfficer, f);
+			}
+			
+			for(CabinCrew cc : cabinCrew) {
+				if(!disruption.blocks(cc) && !released.contains(cc) && !schedule.hasConflict(cc, f)) {
+					schedule.allocateCabinCrewTo(cc, f);
+				}
+			}
+			if(aircraft != null && schedule.getCabinCrewOf(f).size() < aircraft.getCabinCrewRequired()) {
+				for(CabinCrew cc : repairCandidates(schedule, f, crewDAO.getAllCabinCrew())) {
+					if(schedule.getCabinCrewOf(f).size() >= aircraft.getCabinCrewRequired()) {
+						break;
+					}
+					if(!disruption.blocks(cc) && !released.contains(cc) && !schedule.getCabinCrewOf(f).contains(cc)) {
+						schedule.allocateCabinCrewTo(cc, f);
+					}
+				}
+			}
+			
+			schedule.completeAllocationFor(f);
+		}
+		catch(DoubleBookedException | InvalidAllocationException e) {
+			//Nothing is left half allocated; the flight stays remaining for the caller to deal with
+			unAllocate(schedule, f);
+			unrepaired.add(f);
+		}
+	}
+	
+	/**
+	 * Returns the flights the last call to repairSchedule() could not allocate again.
+	 * After a route cancellation this includes the cancelled flights themselves, which belong to the schedule that was repaired,
+	 * not the one returned
+	 * @return the flights the repair left without a full allocation, in time order; empty if it covered everything
+	 */
+	public List<FlightInfo> getUnrepairedFlights() {
+		return unrepaired;
+	}
+	
+	/**
+	 * Marks a resource to be replaced on each of the given flights, and adds the flights to those to re-allocate
+	 */
+	private static void release(Map<FlightInfo, List<Object>> released, List<FlightInfo> affected, Object resource, List<FlightInfo> flights) {
+		for(FlightInfo f : flights) {
+			released.computeIfAbsent(f, k -> new ArrayList<>()).add(resource);
+			if(!affected.contains(f)) {
+				affected.add(f);
+			}
+		}
+	}
+	
+	private static List<FlightInfo> allocationsFor(Schedule schedule, Object resource) {
+		if(resource instanceof Aircraft) {
+			return schedule.getCompletedAllocationsFor((Aircraft) resource);
+		}
+		return schedule.getCompletedAllocationsFor((Crew) resource);
+	}
+	
+	/**
+	 * Returns where an aircraft starts or a crew member is based, for when they have no earlier flight to have landed from.
+	 * Scheduling moves them to where they last land, so this is where they were before this scheduler first allocated them
+	 */
+	private String positionOf(Object resource) {
+		if(bases.containsKey(resource)) {
+			return bases.get(resource);
+		}
+		if(resource instanceof Aircraft) {
+			return ((Aircraft) resource).getStartingPosition();
+		}
+		return ((Crew) resource).getHomeBase();
+	}
+	
+	/**
+	 * Finds the legs after the removed flights that now depart from somewhere other than where the aircraft or
+	 * crew member will actually be. The chain is followed until a leg departs from where it last landed again
+	 * @param allocations every flight the aircraft or crew member is allocated; any of the removed flights among them are ignored
+	 * @param removed the flights being taken away from them, in time order
+	 * @param base where they start from if none of their other flights lands before the first removed one
+	 * @return the later legs that depended on the removed flights, in time order
+	 */
+	private List<FlightInfo> dependentLegs(List<FlightInfo> allocations, List<FlightInfo> removed, String base) {
+		List<FlightInfo> kept = new ArrayList<>(allocations);
+		kept.removeAll(removed);
+		kept.sort(null);
+		
+		List<FlightInfo> dependent = new ArrayList<>();
+		String position = positionBefore(kept, removed.get(0));
+		if(position == null) {
+			position = base;
+		}
+		for(FlightInfo f : kept) {
+			if(!f.getDepartureDateTime().isAfter(removed.get(removed.size() - 1).getDepartureDateTime())) {
+				continue;
+			}
+			if(f.getFlight().getDepartureAirportCode().equals(position)) {
+				break;
+			}
+			dependent.add(f);
+		}
+		return dependent;
+	}
+	
+	/**
+	 * Schedule.unAllocate() forgets every flight the first officer is booked on, not just this one,
+	 * so their other bookings are put back afterwards to keep conflict checks working
+	 */
+	static void unAllocate(Schedule schedule, FlightInfo f) {
+		Pilot firstOfficer = schedule.getFirstOfficerOf(f);
+		List<FlightInfo> otherFlights = new ArrayList<>();
+		if(firstOfficer != null) {
+			for(FlightInfo other : schedule.getCompletedAllocationsFor(firstOfficer)) {
+				if(other != f && schedule.getFirstOfficerOf(other) == firstOfficer) {
+					otherFlights.add(other);
+				}
+			}
+		}
+		
+		schedule.unAllocate(f);
+		
+		for(FlightInfo other : otherFlights) {
+			try {
+				schedule.allocateFirstOfficerTo(firstOfficer, other);
+			}
+			catch(DoubleBookedException e) {
+				//Only possible if the original schedule had already double booked them
+			}
+		}
+	}
+	
+	/**
+	 * Orders the free candidates for a flight: those positioned at the departure airport and qualified first,
+	 * then those qualified, then everyone else who is free
+	 */
+	private <T> List<T> repairCandidates(Schedule schedule, FlightInfo f, List<T> all) {
+		Aircraft aircraft = schedule.getAircraftFor(f);
+		String departure = f.getFlight().getDepartureAirportCode();
+		List<T> positioned = new ArrayList<>();
+		List<T> qualified = new ArrayList<>();
+		List<T> others = new ArrayList<>();
+		
+		for(T candidate : all) {
+			List<FlightInfo> allocations;
+			boolean isQualified;
+			if(candidate instanceof Aircraft) {
+				Aircraft a = (Aircraft) candidate;
+				if(schedule.hasConflict(a, f)) {
+					continue;
+				}
+				allocations = schedule.getCompletedAllocationsFor(a);
+				isQualified = true;
+			}
+			else if(candidate instanceof Pilot) {
+				Pilot p = (Pilot) candidate;
+				if(schedule.hasConflict(p, f)) {
+					continue;
+				}
+				allocations = schedule.getCompletedAllocationsFor(p);
+				isQualified = aircraft != null && p.isQualifiedFor(aircraft);
+			}
+			else {
+				CabinCrew cc = (CabinCrew) candidate;
+				if(schedule.hasConflict(cc, f)) {
+					continue;
+				}
+				allocations = schedule.getCompletedAllocationsFor(cc);
+				isQualified = aircraft != null && cc.isQualifiedFor(aircraft);
+			}
+			
+			if(!isQualified) {
+				others.add(candidate);
+			}
+			else if(departure.equals(positionBefore(allocations, f))) {
+				positioned.add(candidate);
+			}
+			else {
+				qualified.add(candidate);
+			}
+		}
+		
+		positioned.addAll(qualified);
+		positioned.addAll(others);
+		return positioned;
+	}
+	
+	/**
+	 * Returns the airport the last of the given flights landing before f arrived at, or null if there was none
+	 */
+	private String positionBefore(List<FlightInfo> allocations, FlightInfo f) {
+		FlightInfo last = null;
+		for(FlightInfo a : allocations) {
+			if(!a.getLandingDateTime().isAfter(f.getDepartureDateTime()) && (last == null || a.compareTo(last) > 0)) {
+				last = a;
+			}
+		}
+		return last == null ? null : last.getFlight().getArrivalAirportCode();
+	}
+	
+	/**
+	 * A Schedule cannot drop a flight, so a cancelled route is handled by building a new schedule
+	 * without it and copying every other completed allocation across unchanged
+	 */
+	private Schedule withoutRoute(Schedule schedule, int flightNumber, IRouteDAO routeDAO) {
+		RouteDAO remainingRoutes = new RouteDAO();
+		for(Route r : routeDAO.getAllRoutes()) {
+			if(r.getFlightNumber() != flightNumber) {
+				remainingRoutes.routeList.add(r);
+			}
+		}
+		
+		Schedule repaired = new Schedule(remainingRoutes, schedule.getStartDate(), schedule.getEndDate());
+		Map<String, FlightInfo> newFlights = new HashMap<>();
+		for(FlightInfo f : repaired.getRemainingAllocations()) {
+			newFlights.put(f.getFlight().getFlightNumber() + "|" + f.getDepartureDateTime(), f);
+		}
+		
+		for(FlightInfo old : schedule.getCompletedAllocations()) {
+			FlightInfo f = newFlights.get(old.getFlight().getFlightNumber() + "|" + old.getDepartureDateTime());
+			if(f == null) {
+				//A flight of the cancelled route; repairSchedule() reports it and re-plans whoever depended on it
+				continue;
+			}
+			try {
+				repaired.allocateAircraftTo(schedule.getAircraftFor(old), f);
+				repaired.allocateCaptainTo(schedule.getCaptainOf(old), f);
+				repaired.allocateFirstOfficerTo(schedule.getFirstOfficerOf(old), f);
+				for(CabinCrew cc : schedule.getCabinCrewOf(old)) {
+					repaired.allocateCabinCrewTo(cc, f);
+				}
+				repaired.completeAllocationFor(f);
+			}
+			catch(DoubleBookedException | InvalidAllocationException e) {
+				//Only possible if the original schedule had already double booked someone; the flight stays remaining
+				unAllocate(repaired, f);
+				unrepaired.add(f);
+			}
+		}
+		return repaired;
+	}
+
 	@Override
 	public void setSchedulerRunner(SchedulerRunner arg0) {
-		// TODO Auto-generated method stub
-
+		runner = arg0;
 	}
 
+	/**
+	 * Stops the current run after the flight being allocated; the flights not reached are left remaining
+	 */
 	@Override
 	public void stop() {
-		// TODO Auto-generated method stub
-
+		stopped = true;
 	}
 
 }
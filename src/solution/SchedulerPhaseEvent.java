@@ -0,0 +1,31 @@
+package solution;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event covering one phase of the scheduler, e.g. building the positioning cache
+ */
+@Name("solution.SchedulerPhase")
+@Label("Scheduler Phase")
+@Category({"Aircraft Planner", "Scheduler"})
+@Description("One phase of generating or repairing a schedule")
+public class SchedulerPhaseEvent extends jdk.jfr.Event {
+
+	@Label("Phase")
+	String phase;
+
+	/**
+	 * Starts timing a phase; call commit() when it ends
+	 * @param phase a short name for the phase
+	 * @return the started event
+	 */
+	static SchedulerPhaseEvent start(String phase) {
+		SchedulerPhaseEvent event = new SchedulerPhaseEvent();
+		event.phase = phase;
+		event.begin();
+		return event;
+	}
+
+}
@@ -0,0 +1,40 @@
+package solution;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event summarising one scheduler run: how often each role had to fall back
+ * past its first tier, and how many allocations were rejected.
+ * The counters are plain fields bumped as the scheduler runs and the event is committed once at the end,
+ * so nothing is written per flight
+ */
+@Name("solution.SchedulerStats")
+@Label("Scheduler Statistics")
+@Category({"Aircraft Planner", "Scheduler"})
+@Description("Fallback tier and exception counts for one scheduler run")
+public class SchedulerStatsEvent extends jdk.jfr.Event {
+
+	@Label("Flights")
+	int flights;
+
+	@Label("Aircraft Fallback Tiers Entered")
+	int aircraftFallbacks;
+
+	@Label("Captain Fallback Tiers Entered")
+	int captainFallbacks;
+
+	@Label("First Officer Fallback Tiers Entered")
+	int firstOfficerFallbacks;
+
+	@Label("Cabin Crew Fallback Tiers Entered")
+	int cabinCrewFallbacks;
+
+	@Label("DoubleBookedExceptions")
+	int doubleBooked;
+
+	@Label("InvalidAllocationExceptions")
+	int invalidAllocations;
+
+}
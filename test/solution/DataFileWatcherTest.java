@@ -0,0 +1,148 @@
+package solution;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import baseclasses.Aircraft;
+import baseclasses.Crew;
+import baseclasses.DataLoadingException;
+import baseclasses.FlightInfo;
+import baseclasses.Route;
+import baseclasses.Schedule;
+
+/**
+ * Tests the record-level differences DataFileWatcher works out and applies, using copies of the mini data files.
+ * Files are re-read with reload(), so nothing depends on the watch service noticing the edits
+ */
+public class DataFileWatcherTest {
+
+	@TempDir
+	Path directory;
+
+	private Path aircraftFile;
+	private Path crewFile;
+	private Path routeFile;
+	private AircraftDAO aircraft;
+	private CrewDAO crew;
+	private RouteDAO routes;
+	private DataFileWatcher watcher;
+
+	@BeforeEach
+	public void load() throws IOException, DataLoadingException {
+		aircraftFile = Files.copy(Paths.get("./data/mini_aircraft.csv"), directory.resolve("aircraft.csv"));
+		crewFile = Files.copy(Paths.get("./data/mini_crew.json"), directory.resolve("crew.json"));
+		routeFile = Files.copy(Paths.get("./data/mini_routes.xml"), directory.resolve("routes.xml"));
+		aircraft = new AircraftDAO();
+		crew = new CrewDAO();
+		routes = new RouteDAO();
+		aircraft.loadAircraftData(aircraftFile);
+		crew.loadCrewData(crewFile);
+		routes.loadRouteData(routeFile);
+		watcher = new DataFileWatcher(aircraftFile, crewFile, routeFile, aircraft, crew, routes);
+	}
+
+	@Test
+	public void unchangedFileHasNoChanges() throws DataLoadingException {
+		assertTrue(watcher.reload(aircraftFile).isEmpty());
+		assertTrue(watcher.reload(crewFile).isEmpty());
+		assertTrue(watcher.reload(routeFile).isEmpty());
+	}
+
+	@Test
+	public void aircraftAreInsertedUpdatedAndDeleted() throws IOException, DataLoadingException {
+		Aircraft live = aircraft.findAircraftByTailCode("G-AAAA");
+		Aircraft deleted = aircraft.findAircraftByTailCode("PH-OFD");
+		edit(aircraftFile, "G-AAAA,737,B737,Boeing,MAN,192,4", "G-AAAA,737,B737,Boeing,MAN,180,4");
+		edit(aircraftFile, "PH-OFD,70,F70,Fokker,AMS,85,2\n", "");
+		append(aircraftFile, "G-ZZZZ,737,B737,Boeing,MAN,192,4\n");
+
+		DataChanges changes = watcher.reload(aircraftFile);
+
+		assertEquals(1, changes.getAircraft().getInserted().size());
+		assertEquals("G-ZZZZ", changes.getAircraft().getInserted().get(0).getTailCode());
+		assertEquals(1, changes.getAircraft().getUpdated().size());
+		assertSame(live, changes.getAircraft().getUpdated().get(0), "Aircraft are updated in place");
+		assertEquals(180, live.getSeats());
+		assertEquals(1, changes.getAircraft().getDeleted().size());
+		assertSame(deleted, changes.getAircraft().getDeleted().get(0));
+		assertFalse(aircraft.getAllAircraft().contains(deleted));
+		assertTrue(changes.getRoutes().isEmpty());
+		assertTrue(changes.getCrew().isEmpty());
+	}
+
+	@Test
+	public void crewAreUpdatedInPlace() throws IOException, DataLoadingException {
+		Crew live = null;
+		for(Crew c : crew.getAllCrew()) {
+			if(c.getSurname().equals("Schmuck")) {
+				live = c;
+			}
+		}
+		edit(crewFile, "\"home_airport\": \"LGW\",\n      \"type_ratings\": [\n        \"A320\"", "\"home_airport\": \"MAN\",\n      \"type_ratings\": [\n        \"A320\"");
+
+		DataChanges changes = watcher.reload(crewFile);
+
+		assertEquals(1, changes.getCrew().getUpdated().size());
+		assertSame(live, changes.getCrew().getUpdated().get(0));
+		assertEquals("MAN", live.getHomeBase());
+		assertTrue(changes.getCrew().getInserted().isEmpty());
+		assertTrue(changes.getCrew().getDeleted().isEmpty());
+	}
+
+	@Test
+	public void updatedRouteReplacesTheLiveOne() throws IOException, DataLoadingException {
+		Schedule schedule = new Schedule(routes, LocalDate.of(2021, 7, 1), LocalDate.of(2021, 7, 14));
+		Route old = routes.findRoutesByDayOfWeek("Tue").get(0);
+		edit(routeFile, "<DepartureTime>13:40</DepartureTime>", "<DepartureTime>13:50</DepartureTime>");
+
+		DataChanges changes = watcher.reload(routeFile);
+
+		assertEquals(1, changes.getRoutes().getUpdated().size());
+		Route updated = changes.getRoutes().getUpdated().get(0);
+		assertNotSame(old, updated);
+		assertSame(old, changes.getRoutes().getReplaced().get(0));
+		assertTrue(routes.getAllRoutes().contains(updated));
+		assertFalse(routes.getAllRoutes().contains(old));
+		assertEquals(LocalTime.of(13, 40), old.getDepartureTime(), "Flights already scheduled keep their times");
+
+		assertFalse(changes.getAffectedFlights(schedule).isEmpty());
+		for(FlightInfo f : changes.getAffectedFlights(schedule)) {
+			assertSame(old, f.getFlight());
+		}
+	}
+
+	@Test
+	public void stopBeforeRunEndsTheWatcher() throws InterruptedException {
+		watcher.stop();
+		Thread t = new Thread(watcher);
+		t.start();
+		t.join(5000);
+		assertFalse(t.isAlive());
+	}
+
+	private static void edit(Path file, String from, String to) throws IOException {
+		String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).replace("\r\n", "\n");
+		assertTrue(text.contains(from), "The test data still contains " + from);
+		Files.write(file, text.replace(from, to).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void append(Path file, String line) throws IOException {
+		String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+		Files.write(file, (text.endsWith("\n") ? text + line : text + "\n" + line).getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,112 @@
+package solution;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import baseclasses.Aircraft;
+import baseclasses.Crew;
+import baseclasses.DataLoadingException;
+import baseclasses.Route;
+
+/**
+ * Tests a data set generated at three times the size of the full one.
+ * The generated files are loaded with the normal DAOs, so they are also checked to be readable
+ */
+public class DataSetGeneratorTest {
+
+	private static final int SCALE = 3;
+
+	@TempDir
+	static Path directory;
+
+	private static AircraftDAO baseAircraft = new AircraftDAO();
+	private static CrewDAO baseCrew = new CrewDAO();
+	private static RouteDAO baseRoutes = new RouteDAO();
+	private static AircraftDAO aircraft = new AircraftDAO();
+	private static CrewDAO crew = new CrewDAO();
+	private static RouteDAO routes = new RouteDAO();
+
+	@BeforeAll
+	public static void generate() throws DataLoadingException, IOException, SQLException {
+		new DataSetGenerator(Paths.get("./data"), SCALE, 42).generate(directory);
+		baseAircraft.loadAircraftData(Paths.get("./data/aircraft.csv"));
+		baseCrew.loadCrewData(Paths.get("./data/crew.json"));
+		baseRoutes.loadRouteData(Paths.get("./data/routes.xml"));
+		aircraft.loadAircraftData(directory.resolve("aircraft.csv"));
+		crew.loadCrewData(directory.resolve("crew.json"));
+		routes.loadRouteData(directory.resolve("routes.xml"));
+	}
+
+	@Test
+	public void everyRecordIsCopied() {
+		assertEquals(baseAircraft.getNumberOfAircraft() * SCALE, aircraft.getNumberOfAircraft());
+		assertEquals(baseCrew.getNumberOfPilots() * SCALE, crew.getNumberOfPilots());
+		assertEquals(baseCrew.getNumberOfCabinCrew() * SCALE, crew.getNumberOfCabinCrew());
+		assertEquals(baseRoutes.getNumberOfRoutes() * SCALE, routes.getNumberOfRoutes());
+	}
+
+	@Test
+	public void tailCodesAreUnique() {
+		Map<String, Aircraft> byKey = RecordKeys.byKey(aircraft.getAllAircraft(), RecordKeys::aircraftKey);
+		for(String key : byKey.keySet()) {
+			assertTrue(!key.contains("#"), key + " is repeated");
+		}
+	}
+
+	@Test
+	public void crewNamesAreUnique() {
+		Map<String, Crew> byKey = RecordKeys.byKey(crew.getAllCrew(), RecordKeys::crewKey);
+		for(String key : byKey.keySet()) {
+			assertTrue(!key.contains("#"), key + " is repeated");
+		}
+	}
+
+	@Test
+	public void flightNumbersAreUniqueOnEachDay() {
+		Map<String, Route> byKey = RecordKeys.byKey(routes.getAllRoutes(), RecordKeys::routeKey);
+		for(String key : byKey.keySet()) {
+			assertTrue(!key.contains("#"), key + " is repeated");
+		}
+	}
+
+	@Test
+	public void pairsAreShiftedTogetherWithoutChangingDay() {
+		Map<String, Route> base = new HashMap<>();
+		for(Route r : baseRoutes.getAllRoutes()) {
+			base.put(RecordKeys.routeKey(r), r);
+		}
+		Map<Integer, Long> shifts = new HashMap<>();
+		for(Route r : routes.getAllRoutes()) {
+			int copy = r.getFlightNumber() / 10000;
+			Route original = base.get((r.getFlightNumber() % 10000) + "|" + r.getDayOfWeek());
+			assertNotNull(original, r.getFlightNumber() + " on " + r.getDayOfWeek() + " is not a copy of a base route");
+
+			long shift = Duration.between(original.getDepartureTime(), r.getDepartureTime()).toMinutes();
+			assertTrue(Math.abs(shift) <= 90, r.getFlightNumber() + " was moved across midnight");
+			assertEquals(Math.floorMod(shift, 24 * 60), Math.floorMod(Duration.between(original.getArrivalTime(), r.getArrivalTime()).toMinutes(), 24 * 60),
+					r.getFlightNumber() + " keeps its duration");
+			if(copy == 0) {
+				assertEquals(0, shift);
+			}
+
+			//Outbound and return legs are flight numbers 2n and 2n + 1
+			Long pairShift = shifts.putIfAbsent(r.getFlightNumber() / 2, shift);
+			if(pairShift != null) {
+				assertEquals(pairShift.longValue(), shift, r.getFlightNumber() + " is moved by the same amount as the other leg");
+			}
+		}
+	}
+
+}
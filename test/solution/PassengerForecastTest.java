@@ -0,0 +1,113 @@
+package solution;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import baseclasses.DataLoadingException;
+import baseclasses.FlightInfo;
+import baseclasses.IPassengerNumbersDAO;
+import baseclasses.Route;
+import baseclasses.Schedule;
+
+/**
+ * Tests the PassengerForecast over the mini routes, which fly 1848/1849 on Tuesdays and 1980/1981 on Fridays,
+ * with passenger numbers from an in-memory DAO
+ */
+public class PassengerForecastTest {
+
+	private static final LocalDate TUESDAY = LocalDate.of(2021, 7, 6);
+
+	private RouteDAO routes = new RouteDAO();
+	private Schedule schedule;
+	private PassengerForecast forecast;
+
+	@BeforeEach
+	public void load() throws DataLoadingException {
+		routes.loadRouteData(Paths.get("./data/mini_routes.xml"));
+		schedule = new Schedule(routes, TUESDAY, TUESDAY.plusDays(6));
+		forecast = PassengerForecast.forSchedule(new IPassengerNumbersDAO() {
+			@Override
+			public int getPassengerNumbersFor(int flightNumber, LocalDate date) {
+				if(!date.equals(TUESDAY)) {
+					return -1;
+				}
+				return flightNumber == 1848 ? 100 : flightNumber == 1849 ? 150 : -1;
+			}
+
+			@Override
+			public int getNumberOfEntries() {
+				return 2;
+			}
+
+			@Override
+			public void loadPassengerNumbersData(Path p) {
+			}
+
+			@Override
+			public void reset() {
+			}
+		}, schedule);
+	}
+
+	@Test
+	public void legsArePairedWithTheirReturn() {
+		Map<Integer, Route> otherLegs = PassengerForecast.otherLegs(routes);
+
+		assertEquals(4, otherLegs.size());
+		assertEquals(1849, otherLegs.get(1848).getFlightNumber());
+		assertEquals(1848, otherLegs.get(1849).getFlightNumber());
+		assertEquals(1981, otherLegs.get(1980).getFlightNumber());
+	}
+
+	@Test
+	public void legsThatDoNotFlyBackAreNotPaired() {
+		Route return1849 = null;
+		for(Route r : routes.routeList) {
+			if(r.getFlightNumber() == 1849) {
+				return1849 = r;
+			}
+		}
+		return1849.setArrivalAirportCode("LGW");
+
+		Map<Integer, Route> otherLegs = PassengerForecast.otherLegs(routes);
+
+		assertFalse(otherLegs.containsKey(1848));
+		assertFalse(otherLegs.containsKey(1849));
+		assertEquals(2, otherLegs.size());
+	}
+
+	@Test
+	public void rotationDemandIsTheLargerLeg() {
+		Map<Integer, Route> otherLegs = PassengerForecast.otherLegs(routes);
+		FlightInfo outbound = null;
+		for(FlightInfo f : schedule.getRemainingAllocations()) {
+			if(f.getFlight().getFlightNumber() == 1848) {
+				outbound = f;
+			}
+		}
+
+		assertEquals(150, forecast.getRotationDemand(outbound, otherLegs.get(1848)));
+		assertEquals(100, forecast.getRotationDemand(outbound, null));
+	}
+
+	@Test
+	public void forecastCannotBeReloadedOrReset() {
+		assertThrows(UnsupportedOperationException.class, () -> forecast.loadPassengerNumbersData(Paths.get("./data/mini_passengers.db")));
+		assertThrows(UnsupportedOperationException.class, () -> forecast.reset());
+		assertEquals(100, forecast.getPassengerNumbersFor(1848, TUESDAY));
+	}
+
+	@Test
+	public void unloadedDatabaseIsRejected() {
+		assertThrows(DataLoadingException.class, () -> new PassengerForecast(new PassengerNumbersDAO(), null, null));
+	}
+
+}
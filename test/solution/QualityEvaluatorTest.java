@@ -0,0 +1,85 @@
+package solution;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import baseclasses.DataLoadingException;
+import baseclasses.QualityScoreCalculator;
+import baseclasses.Schedule;
+
+/**
+ * Tests that the QualityEvaluator gives the same score and descriptions as QualityScoreCalculator,
+ * on the full data set scheduled for July and August 2021
+ */
+public class QualityEvaluatorTest {
+
+	//The Scheduler's score for the full data over July and August 2021
+	private static final long FULL_SCORE = 716_876_664L;
+
+	private static AircraftDAO aircraft = new AircraftDAO();
+	private static CrewDAO crew = new CrewDAO();
+	private static RouteDAO routes = new RouteDAO();
+	private static PassengerNumbersDAO passengers = new PassengerNumbersDAO();
+	private static Schedule schedule;
+
+	@BeforeAll
+	public static void generate() throws DataLoadingException {
+		aircraft.loadAircraftData(Paths.get("./data/aircraft.csv"));
+		crew.loadCrewData(Paths.get("./data/crew.json"));
+		routes.loadRouteData(Paths.get("./data/routes.xml"));
+		passengers.loadPassengerNumbersData(Paths.get("./data/passengernumbers.db"));
+		schedule = new Scheduler().generateSchedule(aircraft, crew, routes, passengers, LocalDate.of(2021, 7, 1), LocalDate.of(2021, 8, 31));
+	}
+
+	@AfterAll
+	public static void close() {
+		passengers.reset();
+	}
+
+	@Test
+	public void fullDataGivesTheExpectedScore() {
+		assertTrue(schedule.isCompleted());
+		assertEquals(FULL_SCORE, new QualityEvaluator(aircraft, crew, passengers, schedule).calculateQualityScore());
+	}
+
+	@Test
+	public void matchesQualityScoreCalculator() {
+		QualityScoreCalculator calculator = new QualityScoreCalculator(aircraft, crew, passengers, schedule);
+		QualityEvaluator evaluator = new QualityEvaluator(aircraft, crew, passengers, schedule);
+
+		assertEquals(calculator.calculateQualityScore(), evaluator.calculateQualityScore());
+		assertArrayEquals(calculator.describeQualityScore(), evaluator.describeQualityScore());
+	}
+
+	@Test
+	public void matchesQualityScoreCalculatorInParallel() {
+		QualityScoreCalculator calculator = new QualityScoreCalculator(aircraft, crew, passengers, schedule);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			QualityEvaluator evaluator = new QualityEvaluator(aircraft, crew, passengers, schedule, pool);
+
+			assertEquals(calculator.calculateQualityScore(), evaluator.calculateQualityScore());
+			assertArrayEquals(calculator.describeQualityScore(), evaluator.describeQualityScore());
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void incompleteScheduleMatchesQualityScoreCalculator() {
+		Schedule empty = new Schedule(routes, LocalDate.of(2021, 7, 1), LocalDate.of(2021, 7, 2));
+
+		assertEquals(new QualityScoreCalculator(aircraft, crew, passengers, empty).calculateQualityScore(),
+				new QualityEvaluator(aircraft, crew, passengers, empty).calculateQualityScore());
+	}
+
+}
@@ -0,0 +1,70 @@
+package solution;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import baseclasses.Aircraft;
+import baseclasses.CabinCrew;
+import baseclasses.Crew;
+import baseclasses.Pilot;
+
+/**
+ * Tests the keys RecordKeys gives records, which ScheduleStore writes to saved schedules
+ */
+public class RecordKeysTest {
+
+	@Test
+	public void repeatsAreNumberedInOrder() {
+		Aircraft first = aircraft("LY-VEP");
+		Aircraft other = aircraft("G-AAAA");
+		Aircraft second = aircraft("LY-VEP");
+		Aircraft third = aircraft("LY-VEP");
+		List<Aircraft> records = Arrays.asList(first, other, second, third);
+
+		Map<String, Aircraft> byKey = RecordKeys.byKey(records, RecordKeys::aircraftKey);
+
+		assertEquals(Arrays.asList("LY-VEP", "G-AAAA", "LY-VEP#2", "LY-VEP#3"), Arrays.asList(byKey.keySet().toArray()));
+		assertSame(first, byKey.get("LY-VEP"));
+		assertSame(second, byKey.get("LY-VEP#2"));
+		assertSame(third, byKey.get("LY-VEP#3"));
+	}
+
+	@Test
+	public void keysOfMatchesByKey() {
+		Crew first = crew(new Pilot(), "Ada", "Lovelace");
+		Crew second = crew(new Pilot(), "Ada", "Lovelace");
+		List<Crew> records = Arrays.asList(first, second);
+
+		Map<Crew, String> keys = RecordKeys.keysOf(records, RecordKeys::crewKey);
+		Map<String, Crew> byKey = RecordKeys.byKey(records, RecordKeys::crewKey);
+
+		assertEquals("P|Ada|Lovelace", keys.get(first));
+		assertEquals("P|Ada|Lovelace#2", keys.get(second));
+		assertSame(first, byKey.get(keys.get(first)));
+		assertSame(second, byKey.get(keys.get(second)));
+	}
+
+	@Test
+	public void pilotsAndCabinCrewWithTheSameNameDiffer() {
+		assertNotEquals(RecordKeys.crewKey(crew(new Pilot(), "Ada", "Lovelace")), RecordKeys.crewKey(crew(new CabinCrew(), "Ada", "Lovelace")));
+	}
+
+	private static Aircraft aircraft(String tailCode) {
+		Aircraft a = new Aircraft();
+		a.setTailCode(tailCode);
+		return a;
+	}
+
+	private static Crew crew(Crew c, String forename, String surname) {
+		c.setForename(forename);
+		c.setSurname(surname);
+		return c;
+	}
+
+}
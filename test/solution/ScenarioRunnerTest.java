@@ -0,0 +1,97 @@
+package solution;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import baseclasses.Crew;
+import baseclasses.DataLoadingException;
+import baseclasses.Pilot;
+
+/**
+ * Tests running scenarios on the mini data set. The scenarios cover a Monday, when no mini route flies,
+ * so the scheduler leaves every home base where the scenario put it
+ */
+public class ScenarioRunnerTest {
+
+	private static final LocalDate MONDAY = LocalDate.of(2021, 7, 5);
+
+	private AircraftDAO aircraft = new AircraftDAO();
+	private CrewDAO crew = new CrewDAO();
+	private RouteDAO routes = new RouteDAO();
+
+	@BeforeEach
+	public void load() throws DataLoadingException {
+		aircraft.loadAircraftData(Paths.get("./data/mini_aircraft.csv"));
+		crew.loadCrewData(Paths.get("./data/mini_crew.json"));
+		routes.loadRouteData(Paths.get("./data/mini_routes.xml"));
+	}
+
+	@Test
+	public void homeBaseMovesOnlyTheCrewMemberGiven() throws InterruptedException {
+		//A second pilot with the same name as the first, as larger crew files can have
+		Pilot first = crew.getAllPilots().get(0);
+		Pilot namesake = new Pilot();
+		namesake.setForename(first.getForename());
+		namesake.setSurname(first.getSurname());
+		namesake.setRank(first.getRank());
+		namesake.setHomeBase(first.getHomeBase());
+		crew.crewList.add(namesake);
+		crew.pilotList.add(namesake);
+
+		Scenario moved = new Scenario("moved", MONDAY, MONDAY);
+		moved.setHomeBase(namesake, "XXX");
+		List<ScenarioRunner.Result> results = runAll(Arrays.asList(moved));
+
+		List<Crew> runCrew = results.get(0).getCrew().getAllCrew();
+		assertEquals(first.getHomeBase(), runCrew.get(crew.crewList.indexOf(first)).getHomeBase());
+		assertEquals("XXX", runCrew.get(crew.crewList.indexOf(namesake)).getHomeBase());
+		assertEquals(first.getHomeBase(), namesake.getHomeBase(), "The loaded crew are never changed");
+	}
+
+	@Test
+	public void failuresAreReturnedAsResults() throws InterruptedException {
+		Scenario failing = new Scenario("failing", MONDAY, MONDAY);
+		failing.setCrewFilter(c -> {
+			throw new IllegalStateException("broken filter");
+		});
+		Scenario working = new Scenario("working", MONDAY, MONDAY);
+
+		List<ScenarioRunner.Result> results = runAll(Arrays.asList(failing, working));
+
+		assertEquals(2, results.size());
+		for(ScenarioRunner.Result r : results) {
+			if(r.getScenario() == failing) {
+				assertNotNull(r.getFailure());
+				assertEquals("broken filter", r.getFailure().getMessage());
+				assertNull(r.getSchedule());
+				assertEquals(-1, r.getScore());
+			}
+			else {
+				assertNull(r.getFailure());
+				assertNotNull(r.getSchedule());
+			}
+		}
+	}
+
+	private List<ScenarioRunner.Result> runAll(List<Scenario> scenarios) throws InterruptedException {
+		ScenarioRunner runner = new ScenarioRunner(aircraft, crew, routes, null, 2);
+		List<ScenarioRunner.Result> results = new ArrayList<>();
+		try {
+			runner.runAll(scenarios, results::add);
+		}
+		finally {
+			runner.shutdown();
+		}
+		return results;
+	}
+
+}
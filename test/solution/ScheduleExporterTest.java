@@ -0,0 +1,94 @@
+package solution;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import baseclasses.DataLoadingException;
+import baseclasses.FlightInfo;
+import baseclasses.Pilot;
+import baseclasses.Schedule;
+
+/**
+ * Tests exporting the first days of July 2021, with the first flight's captain renamed to need quoting in CSV
+ */
+public class ScheduleExporterTest {
+
+	private static AircraftDAO aircraft = new AircraftDAO();
+	private static CrewDAO crew = new CrewDAO();
+	private static RouteDAO routes = new RouteDAO();
+	private static Schedule schedule;
+	private static Pilot captain;
+	private static String surname;
+
+	@TempDir
+	Path directory;
+
+	@BeforeAll
+	public static void generate() throws DataLoadingException {
+		aircraft.loadAircraftData(Paths.get("./data/aircraft.csv"));
+		crew.loadCrewData(Paths.get("./data/crew.json"));
+		routes.loadRouteData(Paths.get("./data/routes.xml"));
+		schedule = new Scheduler().generateSchedule(aircraft, crew, routes, null, LocalDate.of(2021, 7, 1), LocalDate.of(2021, 7, 3));
+		FlightInfo first = schedule.getCompletedAllocations().get(0);
+		captain = schedule.getCaptainOf(first);
+		surname = captain.getSurname();
+	}
+
+	@AfterEach
+	public void restoreName() {
+		captain.setSurname(surname);
+	}
+
+	@Test
+	public void fieldsWithLineBreaksAreQuoted() throws IOException {
+		captain.setSurname("Smith\r");
+		String csv = export(ScheduleExporter.Format.CSV);
+
+		assertTrue(csv.contains(",\"" + captain.getForename() + " Smith\r\","), "A lone carriage return is quoted");
+		captain.setSurname("Smith\r\nJones");
+		csv = export(ScheduleExporter.Format.CSV);
+		assertTrue(csv.contains(",\"" + captain.getForename() + " Smith\r\nJones\","));
+	}
+
+	@Test
+	public void quotesAreDoubled() throws IOException {
+		captain.setSurname("\"Smith\", Jr");
+		String csv = export(ScheduleExporter.Format.CSV);
+
+		assertTrue(csv.contains(",\"" + captain.getForename() + " \"\"Smith\"\", Jr\","));
+	}
+
+	@Test
+	public void plainFieldsAreNotQuoted() throws IOException {
+		String csv = export(ScheduleExporter.Format.CSV);
+
+		assertEquals(schedule.getCompletedAllocations().size() + 1, csv.split("\n").length);
+		assertTrue(!csv.contains("\""));
+	}
+
+	@Test
+	public void jsonEscapesControlCharacters() throws IOException {
+		captain.setSurname("Smith\r");
+		String json = export(ScheduleExporter.Format.JSON);
+
+		assertTrue(json.contains("\"" + captain.getForename() + " Smith\\u000d\""));
+	}
+
+	private String export(ScheduleExporter.Format format) throws IOException {
+		Path p = directory.resolve("flights");
+		ScheduleExporter.exportFlights(schedule, p, format);
+		return new String(Files.readAllBytes(p), StandardCharsets.UTF_8);
+	}
+
+}
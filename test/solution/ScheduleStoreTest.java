@@ -0,0 +1,173 @@
+package solution;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import baseclasses.Aircraft;
+import baseclasses.CabinCrew;
+import baseclasses.Crew;
+import baseclasses.DataLoadingException;
+import baseclasses.FlightInfo;
+import baseclasses.Schedule;
+
+/**
+ * Tests saving a schedule with ScheduleStore and loading it back into freshly loaded data.
+ * The full data set lists the tail code LY-VEP twice, and a week's schedule uses both aircraft,
+ * so the round trip also checks repeated records are told apart
+ */
+public class ScheduleStoreTest {
+
+	private static AircraftDAO aircraft;
+	private static CrewDAO crew;
+	private static RouteDAO routes;
+	private static Schedule schedule;
+
+	@TempDir
+	Path directory;
+
+	@BeforeAll
+	public static void generate() throws DataLoadingException {
+		aircraft = new AircraftDAO();
+		crew = new CrewDAO();
+		routes = new RouteDAO();
+		aircraft.loadAircraftData(Paths.get("./data/aircraft.csv"));
+		crew.loadCrewData(Paths.get("./data/crew.json"));
+		routes.loadRouteData(Paths.get("./data/routes.xml"));
+		schedule = new Scheduler().generateSchedule(aircraft, crew, routes, null, LocalDate.of(2021, 7, 1), LocalDate.of(2021, 7, 7));
+	}
+
+	@Test
+	public void roundTripRestoresEveryAllocation() throws IOException, DataLoadingException {
+		Path p = directory.resolve("week.schedule");
+		ScheduleStore.save(schedule, aircraft, crew, p);
+
+		AircraftDAO loadedAircraft = new AircraftDAO();
+		CrewDAO loadedCrew = new CrewDAO();
+		loadedAircraft.loadAircraftData(Paths.get("./data/aircraft.csv"));
+		loadedCrew.loadCrewData(Paths.get("./data/crew.json"));
+		ScheduleStore.Result result = ScheduleStore.load(p, loadedAircraft, loadedCrew, routes);
+		Schedule loaded = result.getSchedule();
+
+		assertTrue(result.isComplete());
+		assertEquals(schedule.getCompletedAllocations().size(), result.getSavedFlights());
+		assertEquals(schedule.getCompletedAllocations().size(), loaded.getCompletedAllocations().size());
+		assertEquals(schedule.getRemainingAllocations().size(), loaded.getRemainingAllocations().size());
+
+		//Records are compared by their position in the DAO, which tells the two LY-VEPs apart
+		Map<String, FlightInfo> flights = new HashMap<>();
+		for(FlightInfo f : loaded.getCompletedAllocations()) {
+			flights.put(f.getFlight().getFlightNumber() + "|" + f.getDepartureDateTime(), f);
+		}
+		for(FlightInfo f : schedule.getCompletedAllocations()) {
+			FlightInfo g = flights.get(f.getFlight().getFlightNumber() + "|" + f.getDepartureDateTime());
+			assertEquals(aircraft.aircraft.indexOf(schedule.getAircraftFor(f)), loadedAircraft.aircraft.indexOf(loaded.getAircraftFor(g)));
+			assertEquals(crew.crewList.indexOf(schedule.getCaptainOf(f)), loadedCrew.crewList.indexOf(loaded.getCaptainOf(g)));
+			assertEquals(crew.crewList.indexOf(schedule.getFirstOfficerOf(f)), loadedCrew.crewList.indexOf(loaded.getFirstOfficerOf(g)));
+			assertEquals(indexesOf(crew, schedule.getCabinCrewOf(f)), indexesOf(loadedCrew, loaded.getCabinCrewOf(g)));
+		}
+	}
+
+	@Test
+	public void bothRepeatedTailCodesAreUsed() {
+		List<Aircraft> repeated = new ArrayList<>();
+		for(Aircraft a : aircraft.getAllAircraft()) {
+			if(a.getTailCode().equals("LY-VEP")) {
+				repeated.add(a);
+			}
+		}
+		assertEquals(2, repeated.size());
+		for(Aircraft a : repeated) {
+			assertFalse(schedule.getCompletedAllocationsFor(a).isEmpty(), "The round trip only checks repeats if both are scheduled");
+		}
+	}
+
+	@Test
+	public void missingCrewAreLeftRemaining() throws IOException, DataLoadingException {
+		Path p = directory.resolve("week.schedule");
+		ScheduleStore.save(schedule, aircraft, crew, p);
+
+		CrewDAO fewerCrew = new CrewDAO();
+		fewerCrew.loadCrewData(Paths.get("./data/crew.json"));
+		//The same record as the first flight's captain, loaded again
+		Crew removed = fewerCrew.crewList.remove(crew.crewList.indexOf(schedule.getCaptainOf(schedule.getCompletedAllocations().get(0))));
+		fewerCrew.pilotList.remove(removed);
+		fewerCrew.ccList.remove(removed);
+		ScheduleStore.Result result = ScheduleStore.load(p, aircraft, fewerCrew, routes);
+
+		assertFalse(result.isComplete());
+		assertEquals(schedule.getCompletedAllocations().size(), result.getSavedFlights());
+		assertEquals(result.getRestoredFlights(), result.getSchedule().getCompletedAllocations().size());
+		assertTrue(result.getRestoredFlights() < result.getSavedFlights());
+	}
+
+	@Test
+	public void otherVersionsAreRejected() throws IOException {
+		Path p = directory.resolve("week.schedule");
+		ScheduleStore.save(schedule, aircraft, crew, p);
+		byte[] bytes = Files.readAllBytes(p);
+		//The version is the byte after the four byte magic number
+		bytes[4] = 1;
+		Files.write(p, bytes);
+
+		assertThrows(DataLoadingException.class, () -> ScheduleStore.load(p, aircraft, crew, routes));
+	}
+
+	@Test
+	public void otherFilesAreRejected() throws IOException {
+		Path p = directory.resolve("routes.schedule");
+		Files.copy(Paths.get("./data/routes.xml"), p);
+
+		assertThrows(DataLoadingException.class, () -> ScheduleStore.load(p, aircraft, crew, routes));
+	}
+
+	@Test
+	public void truncatedFilesAreRejected() throws IOException {
+		Path p = directory.resolve("week.schedule");
+		ScheduleStore.save(schedule, aircraft, crew, p);
+		byte[] bytes = Files.readAllBytes(p);
+		Files.write(p, Arrays.copyOf(bytes, bytes.length / 2));
+
+		assertThrows(DataLoadingException.class, () -> ScheduleStore.load(p, aircraft, crew, routes));
+	}
+
+	@Test
+	public void copyKeepsTheSameRecords() {
+		Schedule copy = ScheduleStore.copy(schedule, routes);
+
+		assertEquals(schedule.getCompletedAllocations().size(), copy.getCompletedAllocations().size());
+		FlightInfo f = copy.getCompletedAllocations().get(0);
+		FlightInfo original = null;
+		for(FlightInfo g : schedule.getCompletedAllocations()) {
+			if(g.getFlight() == f.getFlight() && g.getDepartureDateTime().equals(f.getDepartureDateTime())) {
+				original = g;
+			}
+		}
+		assertSame(schedule.getAircraftFor(original), copy.getAircraftFor(f));
+	}
+
+	private static List<Integer> indexesOf(CrewDAO dao, List<CabinCrew> cabinCrew) {
+		List<Integer> indexes = new ArrayList<>();
+		for(CabinCrew cc : cabinCrew) {
+			indexes.add(dao.crewList.indexOf(cc));
+		}
+		return indexes;
+	}
+
+}
@@ -0,0 +1,175 @@
+package solution;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import baseclasses.Aircraft;
+import baseclasses.Crew;
+import baseclasses.DataLoadingException;
+import baseclasses.FlightInfo;
+import baseclasses.Pilot;
+import baseclasses.Schedule;
+
+/**
+ * Tests Scheduler.repairSchedule() on a week of the full data set.
+ * Compile test/ together with src/, with lib/, sqlite-jdbc and JUnit 5 on the classpath,
+ * and run from the project root so ./data resolves
+ */
+public class SchedulerRepairTest {
+
+	private static final LocalDate START = LocalDate.of(2021, 7, 1);
+	private static final LocalDate END = LocalDate.of(2021, 7, 7);
+
+	private AircraftDAO aircraft;
+	private CrewDAO crew;
+	private RouteDAO routes;
+	private Scheduler scheduler;
+	private Schedule schedule;
+	private Map<Object, String> bases = new IdentityHashMap<>();
+
+	@BeforeEach
+	public void generate() throws DataLoadingException {
+		aircraft = new AircraftDAO();
+		crew = new CrewDAO();
+		routes = new RouteDAO();
+		aircraft.loadAircraftData(Paths.get("./data/aircraft.csv"));
+		crew.loadCrewData(Paths.get("./data/crew.json"));
+		routes.loadRouteData(Paths.get("./data/routes.xml"));
+		//Scheduling moves everyone to where they last land, so where they started is kept first
+		for(Aircraft a : aircraft.getAllAircraft()) {
+			bases.put(a, a.getStartingPosition());
+		}
+		for(Crew c : crew.getAllCrew()) {
+			bases.put(c, c.getHomeBase());
+		}
+		scheduler = new Scheduler();
+		schedule = scheduler.generateSchedule(aircraft, crew, routes, null, START, END);
+	}
+
+	@Test
+	public void cancelledFlightsAreReportedUnrepaired() {
+		FlightInfo first = firstFlight(schedule.getCompletedAllocations());
+		int flightNumber = first.getFlight().getFlightNumber();
+		int before = schedule.getCompletedAllocations().size() + schedule.getRemainingAllocations().size();
+
+		Schedule repaired = scheduler.repairSchedule(schedule, Disruption.routeCancelled(flightNumber), aircraft, crew, routes);
+
+		List<FlightInfo> cancelled = new ArrayList<>();
+		for(FlightInfo f : scheduler.getUnrepairedFlights()) {
+			if(f.getFlight().getFlightNumber() == flightNumber) {
+				cancelled.add(f);
+			}
+			else {
+				assertTrue(repaired.getRemainingAllocations().contains(f), "Unrepaired flights other than the cancelled ones are left remaining");
+			}
+		}
+		assertFalse(cancelled.isEmpty());
+		assertEquals(before, repaired.getCompletedAllocations().size() + repaired.getRemainingAllocations().size() + cancelled.size(),
+				"Every flight is either in the repaired schedule or reported as cancelled");
+	}
+
+	@Test
+	public void legsAfterACancelledFlightAreReplanned() {
+		FlightInfo first = firstFlight(schedule.getCompletedAllocations());
+		Aircraft a = schedule.getAircraftFor(first);
+		Pilot captain = schedule.getCaptainOf(first);
+		List<FlightInfo> aircraftLegs = legsAfter(schedule.getCompletedAllocationsFor(a), first, bases.get(a));
+		List<FlightInfo> captainLegs = legsAfter(schedule.getCompletedAllocationsFor(captain), first, bases.get(captain));
+
+		Schedule repaired = scheduler.repairSchedule(schedule, Disruption.routeCancelled(first.getFlight().getFlightNumber()), aircraft, crew, routes);
+
+		Map<String, FlightInfo> flights = byKey(repaired);
+		for(FlightInfo old : aircraftLegs) {
+			FlightInfo f = flights.get(key(old));
+			assertNotSame(a, repaired.getAircraftFor(f), "The aircraft is no longer where " + f + " departs from");
+		}
+		for(FlightInfo old : captainLegs) {
+			FlightInfo f = flights.get(key(old));
+			assertNotSame(captain, repaired.getCaptainOf(f), "The captain is no longer where " + f + " departs from");
+			assertNotSame(captain, repaired.getFirstOfficerOf(f), "The captain is no longer where " + f + " departs from");
+		}
+	}
+
+	@Test
+	public void legsAfterAnUnavailablePeriodAreReplanned() {
+		FlightInfo first = firstFlight(schedule.getCompletedAllocations());
+		Aircraft a = schedule.getAircraftFor(first);
+		List<FlightInfo> legs = legsAfter(schedule.getCompletedAllocationsFor(a), first, bases.get(a));
+
+		scheduler.repairSchedule(schedule, Disruption.aircraftUnavailable(a, first.getDepartureDateTime(), first.getLandingDateTime()), aircraft, crew, routes);
+
+		assertNotSame(a, schedule.getAircraftFor(first));
+		for(FlightInfo f : legs) {
+			assertNotSame(a, schedule.getAircraftFor(f), "The aircraft is no longer where " + f + " departs from");
+		}
+	}
+
+	@Test
+	public void removedCrewKeepNoFlights() {
+		Pilot captain = schedule.getCaptainOf(firstFlight(schedule.getCompletedAllocations()));
+
+		scheduler.repairSchedule(schedule, Disruption.crewRemoved(captain), aircraft, crew, routes);
+
+		for(FlightInfo f : schedule.getCompletedAllocations()) {
+			assertNotSame(captain, schedule.getCaptainOf(f));
+			assertNotSame(captain, schedule.getFirstOfficerOf(f));
+		}
+		for(FlightInfo f : scheduler.getUnrepairedFlights()) {
+			assertTrue(schedule.getRemainingAllocations().contains(f));
+		}
+	}
+
+	private static FlightInfo firstFlight(List<FlightInfo> flights) {
+		List<FlightInfo> sorted = new ArrayList<>(flights);
+		sorted.sort(null);
+		return sorted.get(0);
+	}
+
+	/**
+	 * The legs after a removed flight that departed from where it landed rather than from where the resource had been before it,
+	 * up to the first that departs from there again
+	 */
+	private static List<FlightInfo> legsAfter(List<FlightInfo> allocations, FlightInfo removed, String position) {
+		List<FlightInfo> sorted = new ArrayList<>(allocations);
+		sorted.sort(null);
+		List<FlightInfo> legs = new ArrayList<>();
+		for(FlightInfo f : sorted) {
+			if(!f.getDepartureDateTime().isAfter(removed.getDepartureDateTime())) {
+				continue;
+			}
+			if(f.getFlight().getDepartureAirportCode().equals(position)) {
+				break;
+			}
+			legs.add(f);
+		}
+		return legs;
+	}
+
+	private static Map<String, FlightInfo> byKey(Schedule s) {
+		Map<String, FlightInfo> flights = new HashMap<>();
+		for(FlightInfo f : s.getCompletedAllocations()) {
+			flights.put(key(f), f);
+		}
+		for(FlightInfo f : s.getRemainingAllocations()) {
+			flights.put(key(f), f);
+		}
+		return flights;
+	}
+
+	private static String key(FlightInfo f) {
+		return f.getFlight().getFlightNumber() + "|" + f.getDepartureDateTime();
+	}
+
+}